@@ -1,6 +1,7 @@
 plugins {
     id("java")
     application // Adding the application plugin to support running Java applications
+    id("me.champeau.jmh") version "0.7.2" // JMH benchmarks in src/jmh/java, run with: gradle jmh
 
 }
 
@@ -14,10 +15,28 @@ repositories {
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks.test {
     useJUnitPlatform()
+    // Several tests build million-block trees; Gradle's default 512 MB test heap spends most of that time in GC
+    maxHeapSize = "2g"
+}
+
+// Benchmarks: gradle jmh [-PjmhIncludes=regex]; results are written as JSON for regression tracking
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(2)
+    warmup.set("2s")
+    iterations.set(3)
+    timeOnIteration.set("2s")
+    fork.set(1)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    if (project.hasProperty("jmhIncludes")) {
+        includes.set(listOf(project.property("jmhIncludes").toString()))
+    }
 }
 
 application {
@@ -25,3 +44,37 @@ application {
     mainClass.set("edu.hsutx.CowboySeatsApplication")
 }
 
+
+// Replays a reservation trace headlessly at full speed: gradle replay [-Ptrace=path/to/trace.csv] [-Pwal=path/to/log]
+tasks.register<JavaExec>("replay") {
+    group = "application"
+    description = "Replays a reservation trace without the GUI and reports throughput and latency."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("edu.hsutx.ReservationEngine")
+    args = listOfNotNull(
+        (project.findProperty("trace") ?: "data/reservations.csv").toString(),
+        project.findProperty("wal")?.toString()
+    )
+}
+
+// Converts a trace to the binary format: gradle convertTrace [-Ptrace=in.csv] [-Pout=out.bin] [-Pvarint]
+tasks.register<JavaExec>("convertTrace") {
+    group = "application"
+    description = "Converts a reservation trace to the compact binary trace format."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("edu.hsutx.TraceConverter")
+    args = listOfNotNull(
+        (project.findProperty("trace") ?: "data/reservations.csv").toString(),
+        (project.findProperty("out") ?: "data/reservations.bin").toString(),
+        if (project.hasProperty("varint")) "--varint" else null
+    )
+}
+
+// Compares the placement strategies on a trace: gradle placementReport [-Ptrace=path/to/trace.csv]
+tasks.register<JavaExec>("placementReport") {
+    group = "application"
+    description = "Replays a reservation trace against each placement strategy and reports fragmentation and throughput."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("edu.hsutx.PlacementReport")
+    args = listOf((project.findProperty("trace") ?: "data/reservations.csv").toString())
+}
@@ -0,0 +1,81 @@
+package edu.hsutx;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Seats every party from the bundled trace in a fresh venue, as group sales of batchSize parties each.
+ * reserveLoop calls reserve once per party and reserveBatch hands each group to reserveBatch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchReserveBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private List<List<CowboySeatTree.Request>> batches;
+
+    @Setup(Level.Trial)
+    public void loadTrace() throws IOException {
+        List<CowboySeatTree.Request> requests = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(System.getProperty("trace", "data/reservations.csv")), StandardCharsets.UTF_16))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values[0].charAt(0) == 'a') {
+                    requests.add(new CowboySeatTree.Request(values[1], Integer.parseInt(values[2]), Integer.parseInt(values[3])));
+                }
+            }
+        }
+
+        batches = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i += batchSize) {
+            batches.add(requests.subList(i, Math.min(i + batchSize, requests.size())));
+        }
+    }
+
+    private static CowboySeatTree emptyVenue() {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+        return tree;
+    }
+
+    @Benchmark
+    public CowboySeatTree reserveLoop() {
+        CowboySeatTree tree = emptyVenue();
+        for (List<CowboySeatTree.Request> batch : batches) {
+            for (CowboySeatTree.Request request : batch) {
+                tree.reserve(request.getOwner(), request.getSeatsNeeded(), request.getPreference());
+            }
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public CowboySeatTree reserveBatch() {
+        CowboySeatTree tree = emptyVenue();
+        for (List<CowboySeatTree.Request> batch : batches) {
+            tree.reserveBatch(batch);
+        }
+        return tree;
+    }
+}
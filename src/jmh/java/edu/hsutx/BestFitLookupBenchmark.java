@@ -0,0 +1,51 @@
+package edu.hsutx;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A best-fit lookup in a venue where the free blocks stay the same and assignedBlocks blocks are sold.
+ * The free-block index never holds assigned blocks, so the time should stay flat as assignedBlocks grows;
+ * a walk over the main tree would grow with it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BestFitLookupBenchmark {
+
+    @Param({"1000", "10000", "100000", "500000"})
+    public int assignedBlocks;
+
+    private CowboySeatTree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = new CowboySeatTree();
+        tree.insert(new SeatAssignment(2, 9_999_999));  // the only free block that fits
+        for (int i = 0; i < 1_000; i++) {
+            tree.insert(new SeatAssignment(1, 9_000_000 + i));  // small fragments that do not fit
+        }
+        for (int i = 0; i < assignedBlocks; i++) {
+            tree.insert(new SeatAssignment("owner" + i, 2, i * 2 + 1));
+        }
+    }
+
+    @Benchmark
+    public SeatAssignment getUnassignedBlockOverThreshold() {
+        return tree.getUnassignedBlockOverThreshold(2);
+    }
+
+    @Benchmark
+    public SeatAssignment findUnassignedBlockOverThreshold() {
+        return tree.findUnassignedBlockOverThreshold(2);
+    }
+}
@@ -0,0 +1,56 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Builds a pre-sold arena of treeSize one-seat blocks, every other one sold, either with the O(n) bulk
+ * load or by inserting the blocks one at a time. Both build the main tree and all the indexes, and most of
+ * the time in either goes to allocating the new nodes, so compare the two rather than either on its own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int treeSize;
+
+    private List<SeatAssignment> sorted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sorted = new ArrayList<>(treeSize);
+        for (int i = 0; i < treeSize; i++) {
+            // Blocks of one seat sort by start seat
+            sorted.add(i % 2 == 0 ? new SeatAssignment(1, i + 1) : new SeatAssignment("owner" + i, 1, i + 1));
+        }
+    }
+
+    @Benchmark
+    public CowboySeatTree bulkLoad() {
+        CowboySeatTree tree = new CowboySeatTree();
+        tree.bulkLoad(sorted.iterator());
+        return tree;
+    }
+
+    @Benchmark
+    public CowboySeatTree insertLoop() {
+        CowboySeatTree tree = new CowboySeatTree();
+        for (SeatAssignment block : sorted) {
+            tree.insert(block);
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,86 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Box-office threads reserving and cancelling at random on one ConcurrentReservationService, from 1 to 32
+ * threads. The score is the time per operation across all threads, so it falls as throughput scales; on
+ * a machine with fewer cores than threads it can only rise.
+ *
+ * Each invocation starts from an empty venue and runs OPS operations split evenly between the threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConcurrentReservationBenchmark {
+    private static final int OPS = 64_000;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private ExecutorService pool;
+    private ConcurrentReservationService service;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdownNow();
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyVenue() {
+        service = new ConcurrentReservationService(new CowboySeatTree());
+        service.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public int boxOffices() throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(thread);
+                List<SeatAssignment> mine = new ArrayList<>();
+                for (int i = 0; i < OPS / threads; i++) {
+                    if (mine.isEmpty() || random.nextInt(4) > 0) {
+                        SeatAssignment reservation = service.reserve("t" + thread + "-" + i, random.nextInt(20) + 1, random.nextInt(101));
+                        if (reservation != null) {
+                            mine.add(reservation);
+                        }
+                    } else {
+                        service.release(mine.remove(random.nextInt(mine.size())));
+                    }
+                }
+                return mine.size();
+            }));
+        }
+        int held = 0;
+        for (Future<Integer> future : futures) {
+            held += future.get();
+        }
+        return held;
+    }
+}
@@ -0,0 +1,109 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the hot paths of CowboySeatTree on a steady-state tree of treeSize blocks.
+ * Every other block is assigned, so best-fit lookups have assigned blocks to skip.
+ *
+ * insert and delete are measured in pairs (insert an absent block then remove it, or remove a present
+ * block then put it back) so the tree stays at treeSize for the whole run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CowboySeatTreeBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int treeSize;
+
+    @Param({"random", "sorted"})
+    public String keyOrder;
+
+    private CowboySeatTree tree;
+    private SeatAssignment[] present;   // blocks in the tree
+    private SeatAssignment[] absent;    // blocks that never enter the tree between operations
+    private int[] thresholds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        present = new SeatAssignment[treeSize];
+        absent = new SeatAssignment[treeSize];
+        for (int i = 0; i < treeSize; i++) {
+            int quantity = random.nextInt(100) + 1;
+            present[i] = i % 2 == 0
+                    ? new SeatAssignment(quantity, 2 * i + 1)
+                    : new SeatAssignment("owner" + i, quantity, 2 * i + 1);
+            absent[i] = new SeatAssignment(quantity, 2 * i + 2);
+        }
+        if (keyOrder.equals("sorted")) {
+            Arrays.sort(present, (a, b) -> Long.compare(a.getLongKey(), b.getLongKey()));
+        } else {
+            shuffle(present, random);
+        }
+        shuffle(absent, random);
+
+        tree = new CowboySeatTree();
+        for (SeatAssignment block : present) {
+            tree.insert(block);
+        }
+
+        thresholds = new int[1024];
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = random.nextInt(100) + 1;
+        }
+    }
+
+    static <T> void shuffle(T[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == treeSize ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public void insert() {
+        SeatAssignment block = absent[nextIndex()];
+        tree.insert(block);
+        tree.delete(block);
+    }
+
+    @Benchmark
+    public void delete() {
+        SeatAssignment block = present[nextIndex()];
+        tree.delete(block);
+        tree.insert(block);
+    }
+
+    @Benchmark
+    public SeatAssignment getValue() {
+        return tree.getValue(present[nextIndex()].getLongKey());
+    }
+
+    @Benchmark
+    public SeatAssignment getUnassignedBlockOverThreshold() {
+        return tree.getUnassignedBlockOverThreshold(thresholds[nextIndex() & (thresholds.length - 1)]);
+    }
+}
@@ -0,0 +1,130 @@
+package edu.hsutx;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * The cost of rebalancing, as the per-operation time of insert-heavy and delete-heavy mixes on both
+ * pointer-based trees.
+ *
+ * insertHeavy grows an empty tree to OPS keys in random order and deletes one key in five again, about
+ * four inserts to one delete. deleteHeavy starts from a tree of OPS random keys and empties it in a
+ * different random order, putting every fifth key back once, about four deletes to one insert. The trees
+ * are rebuilt before each invocation, outside the timing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FixupBenchmark {
+    private static final int OPS = 200_000;
+
+    @Param({"long", "string"})
+    public String keyType;
+
+    private long[] keys;
+    private String[] stringKeys;
+    private int[] deleteOrder;
+    private LongRedBlackTree<Integer> longTree;
+    private RedBlackTree<Integer> stringTree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        keys = new long[OPS];
+        stringKeys = new String[OPS];
+        for (int i = 0; i < OPS; i++) {
+            keys[i] = random.nextLong() & Long.MAX_VALUE;
+            stringKeys[i] = String.format("%019d", keys[i]);
+        }
+        deleteOrder = new int[OPS];
+        for (int i = 0; i < OPS; i++) {
+            deleteOrder[i] = i;
+        }
+        for (int i = OPS - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = deleteOrder[i];
+            deleteOrder[i] = deleteOrder[j];
+            deleteOrder[j] = swap;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTrees(BenchmarkParams params) {
+        longTree = new LongRedBlackTree<>();
+        stringTree = new RedBlackTree<>();
+        if (!params.getBenchmark().endsWith("deleteHeavy")) {
+            return;     // insertHeavy starts from empty trees
+        }
+        if (keyType.equals("long")) {
+            for (int i = 0; i < OPS; i++) {
+                longTree.insert(keys[i], i);
+            }
+        } else {
+            for (int i = 0; i < OPS; i++) {
+                stringTree.insert(stringKeys[i], i);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS + OPS / 5)
+    public int insertHeavy() {
+        if (keyType.equals("long")) {
+            for (int i = 0; i < OPS; i++) {
+                longTree.insert(keys[i], i);
+                if (i % 5 == 4) {
+                    longTree.delete(keys[i - 2]);
+                }
+            }
+            return longTree.getSize();
+        }
+        for (int i = 0; i < OPS; i++) {
+            stringTree.insert(stringKeys[i], i);
+            if (i % 5 == 4) {
+                stringTree.delete(stringKeys[i - 2]);
+            }
+        }
+        return stringTree.getSize();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS + OPS / 5 * 2)
+    public int deleteHeavy() {
+        if (keyType.equals("long")) {
+            for (int i = 0; i < OPS; i++) {
+                long key = keys[deleteOrder[i]];
+                longTree.delete(key);
+                if (i % 5 == 4) {
+                    longTree.insert(key, i);    // back once, and gone again at the end
+                }
+            }
+            for (int i = 4; i < OPS; i += 5) {
+                longTree.delete(keys[deleteOrder[i]]);
+            }
+            return longTree.getSize();
+        }
+        for (int i = 0; i < OPS; i++) {
+            String key = stringKeys[deleteOrder[i]];
+            stringTree.delete(key);
+            if (i % 5 == 4) {
+                stringTree.insert(key, i);
+            }
+        }
+        for (int i = 4; i < OPS; i += 5) {
+            stringTree.delete(stringKeys[deleteOrder[i]]);
+        }
+        return stringTree.getSize();
+    }
+}
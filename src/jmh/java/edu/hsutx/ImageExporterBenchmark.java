@@ -0,0 +1,58 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * What exporting the stadium image costs the drawing thread: one offer of a full frame with no interval,
+ * so every offer copies the pixels and either wakes the writer or replaces the frame it has not got to yet.
+ * The writer's encoding runs on its own thread and is not part of the score, except as competition for
+ * the CPU.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageExporterBenchmark {
+    private static final int SIZE = SwingView.STADIUM_SIZE;
+
+    @Param({"RAW", "PNG"})
+    public ImageExporter.Format format;
+
+    private final int[] pixels = new int[SIZE * SIZE];
+    private Path path;
+    private ImageExporter exporter;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (i * 31) & 0xFFFFFF;
+        }
+        path = Files.createTempFile("stadium", "." + format.name().toLowerCase());
+        exporter = new ImageExporter(path, format, Duration.ZERO, SIZE, SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        exporter.close();
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public boolean offer() {
+        return exporter.offer(pixels);
+    }
+}
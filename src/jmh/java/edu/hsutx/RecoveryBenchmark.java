@@ -0,0 +1,85 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Rebuilds the venue left by the whole bundled reservation trace, or the one given with -Dtrace, from its
+ * write-ahead log, against replaying the trace's commands into a fresh venue. Recovery reads the log and
+ * bulk-loads the tree without running a single command.
+ *
+ * recoverFromCheckpoint restores the same venue from a checkpoint taken at the end of the trace, with
+ * nothing left in the log to replay.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RecoveryBenchmark {
+    private final String tracePath = System.getProperty("trace", "data/reservations.csv");
+    private Path directory;
+    private Path logPath;
+    private Path checkpointedLogPath;
+
+    @Setup(Level.Trial)
+    public void writeLog() throws IOException {
+        directory = Files.createTempDirectory("recovery");
+        logPath = directory.resolve("venue.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            engine.replay(tracePath);
+        }
+        checkpointedLogPath = directory.resolve("checkpointed.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(checkpointedLogPath)) {
+            engine.replay(tracePath);
+            engine.checkpoint().join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLog() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    @Benchmark
+    public CowboySeatTree recoverFromLog() throws IOException {
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            return engine.getSeatTree();
+        }
+    }
+
+    @Benchmark
+    public CowboySeatTree recoverFromCheckpoint() throws IOException {
+        try (ReservationEngine engine = ReservationEngine.recover(checkpointedLogPath)) {
+            return engine.getSeatTree();
+        }
+    }
+
+    @Benchmark
+    public CowboySeatTree replayTrace() throws IOException {
+        ReservationEngine engine = new ReservationEngine(new CowboySeatTree());
+        engine.initialize();
+        engine.replay(tracePath);
+        return engine.getSeatTree();
+    }
+}
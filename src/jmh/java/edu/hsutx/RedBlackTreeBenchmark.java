@@ -0,0 +1,84 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the String-keyed RedBlackTree on a steady-state tree of treeSize keys,
+ * using the zero-padded seat keys the tree was originally designed around.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RedBlackTreeBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int treeSize;
+
+    @Param({"random", "sorted"})
+    public String keyOrder;
+
+    private RedBlackTree<Integer> tree;
+    private String[] present;
+    private String[] absent;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        present = new String[treeSize];
+        absent = new String[treeSize];
+        for (int i = 0; i < treeSize; i++) {
+            int quantity = random.nextInt(100) + 1;
+            present[i] = new SeatAssignment(quantity, 2 * i + 1).getKey();
+            absent[i] = new SeatAssignment(quantity, 2 * i + 2).getKey();
+        }
+        if (keyOrder.equals("sorted")) {
+            Arrays.sort(present);
+        } else {
+            CowboySeatTreeBenchmark.shuffle(present, random);
+        }
+        CowboySeatTreeBenchmark.shuffle(absent, random);
+
+        tree = new RedBlackTree<>();
+        for (int i = 0; i < treeSize; i++) {
+            tree.insert(present[i], i);
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == treeSize ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public void insert() {
+        String key = absent[nextIndex()];
+        tree.insert(key, 0);
+        tree.delete(key);
+    }
+
+    @Benchmark
+    public void delete() {
+        String key = present[nextIndex()];
+        tree.delete(key);
+        tree.insert(key, 0);
+    }
+
+    @Benchmark
+    public Integer getValue() {
+        return tree.getValue(present[nextIndex()]);
+    }
+}
@@ -0,0 +1,74 @@
+package edu.hsutx;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Replays the whole bundled reservation trace against a fresh venue. The trace is parsed once up front,
+ * so only the allocator is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReplayBenchmark {
+    private char[] commands;
+    private String[] names;
+    private int[] seats;
+    private int[] preferences;
+
+    @Setup(Level.Trial)
+    public void loadTrace() throws IOException {
+        List<String[]> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(System.getProperty("trace", "data/reservations.csv")), StandardCharsets.UTF_16))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                lines.add(line.split(","));
+            }
+        }
+
+        int count = lines.size();
+        commands = new char[count];
+        names = new String[count];
+        seats = new int[count];
+        preferences = new int[count];
+        for (int i = 0; i < count; i++) {
+            String[] values = lines.get(i);
+            commands[i] = values[0].charAt(0);
+            names[i] = values[1];
+            if (commands[i] == 'a') {
+                seats[i] = Integer.parseInt(values[2]);
+                preferences[i] = Integer.parseInt(values[3]);
+            }
+        }
+    }
+
+    @Benchmark
+    public CowboySeatTree replayTrace() {
+        ReservationEngine engine = new ReservationEngine(new CowboySeatTree());
+        engine.initialize();
+        for (int i = 0; i < commands.length; i++) {
+            if (commands[i] == 'a') {
+                engine.reserve(names[i], seats[i], preferences[i]);
+            } else {
+                engine.cancel(names[i]);
+            }
+        }
+        return engine.getSeatTree();
+    }
+}
@@ -0,0 +1,105 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Whole-venue scans of a CowboySeatTree of treeSize blocks, sequential and on the fork-join pool: the free
+ * seat total, a histogram of free fragments by power-of-two size, and the seats each owner holds. The
+ * cursor loop is the single-threaded baseline with no stream machinery at all.
+ *
+ * Every other block is assigned, and owners hold 1 to 10 blocks each. The parallel figures depend on the
+ * cores available; run with -Djava.util.concurrent.ForkJoinPool.common.parallelism to pin the pool size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScanBenchmark {
+
+    @Param({"1000000"})
+    public int treeSize;
+
+    private CowboySeatTree tree;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<SeatAssignment> blocks = new ArrayList<>(treeSize);
+        int seat = 1;
+        for (int i = 0; i < treeSize; i++) {
+            int quantity = random.nextInt(9) + 1;     // the packed key needs the venue under 10 million seats
+            blocks.add(i % 2 == 0
+                    ? new SeatAssignment(quantity, seat)
+                    : new SeatAssignment("owner" + random.nextInt(treeSize / 10), quantity, seat));
+            seat += quantity;
+        }
+        blocks.sort(Comparator.comparingLong(SeatAssignment::getLongKey));
+        tree = new CowboySeatTree();
+        tree.bulkLoad(blocks.iterator());
+    }
+
+    private static int sizeClass(SeatAssignment block) {
+        return 31 - Integer.numberOfLeadingZeros(block.getSeatQuantity());
+    }
+
+    @Benchmark
+    public long cursorFreeSeats() {
+        long free = 0;
+        LongRedBlackTree<SeatAssignment>.Cursor cursor = tree.cursor();
+        while (cursor.next()) {
+            if (cursor.getValue().getOwner() == null) {
+                free += cursor.getValue().getSeatQuantity();
+            }
+        }
+        return free;
+    }
+
+    @Benchmark
+    public long sequentialFreeSeats() {
+        return tree.stream().filter(block -> block.getOwner() == null).mapToLong(SeatAssignment::getSeatQuantity).sum();
+    }
+
+    @Benchmark
+    public long parallelFreeSeats() {
+        return tree.parallelStream().filter(block -> block.getOwner() == null).mapToLong(SeatAssignment::getSeatQuantity).sum();
+    }
+
+    @Benchmark
+    public Map<Integer, Long> sequentialFragmentHistogram() {
+        return tree.stream().filter(block -> block.getOwner() == null)
+                .collect(Collectors.groupingBy(ScanBenchmark::sizeClass, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> parallelFragmentHistogram() {
+        return tree.parallelStream().filter(block -> block.getOwner() == null)
+                .collect(Collectors.groupingByConcurrent(ScanBenchmark::sizeClass, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<String, Integer> sequentialSeatsPerOwner() {
+        return tree.stream().filter(block -> block.getOwner() != null)
+                .collect(Collectors.groupingBy(SeatAssignment::getOwner, Collectors.summingInt(SeatAssignment::getSeatQuantity)));
+    }
+
+    @Benchmark
+    public Map<String, Integer> parallelSeatsPerOwner() {
+        return tree.parallelStream().filter(block -> block.getOwner() != null)
+                .collect(Collectors.groupingByConcurrent(SeatAssignment::getOwner, Collectors.summingInt(SeatAssignment::getSeatQuantity)));
+    }
+}
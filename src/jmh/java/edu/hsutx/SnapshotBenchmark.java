@@ -0,0 +1,146 @@
+package edu.hsutx;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the persistent (path-copying) tree with the mutable one.
+ *
+ * The Write benchmarks measure the cost of one insert plus one delete on each tree at treeSize keys.
+ * The contention groups run one box-office thread reserving and cancelling against three readers, which
+ * either take the service's read lock or read the published snapshot; compare the reader percentiles.
+ * Both groups keep snapshots enabled, so their writers do the same work.
+ */
+public class SnapshotBenchmark {
+
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public static class Write {
+        @Param({"1000", "100000", "1000000"})
+        public int treeSize;
+
+        private LongRedBlackTree<Integer> mutable;
+        private PersistentRedBlackTree<Integer> persistent;
+        private long[] absent;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            mutable = new LongRedBlackTree<>();
+            persistent = new PersistentRedBlackTree<>();
+            for (int i = 0; i < treeSize; i++) {
+                long key = 2L * random.nextInt(Integer.MAX_VALUE / 2);
+                mutable.insert(key, i);
+                persistent.insert(key, i);
+            }
+            absent = new long[4096];
+            for (int i = 0; i < absent.length; i++) {
+                absent[i] = 2L * random.nextInt(Integer.MAX_VALUE / 2) + 1;
+            }
+        }
+
+        private long nextKey() {
+            next = (next + 1) & (absent.length - 1);
+            return absent[next];
+        }
+
+        @Benchmark
+        public void mutableInsertDelete() {
+            long key = nextKey();
+            mutable.insert(key, 0);
+            mutable.delete(key);
+        }
+
+        @Benchmark
+        public void persistentInsertDelete() {
+            long key = nextKey();
+            persistent.insert(key, 0);
+            persistent.delete(key);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class Venue {
+        ConcurrentReservationService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            service = new ConcurrentReservationService(new CowboySeatTree());
+            service.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+            service.enableSnapshots();
+            // Fill the venue with some history so reads have a real tree to walk
+            Random random = new Random(42);
+            for (int i = 0; i < 20_000; i++) {
+                service.reserve("seed" + i, random.nextInt(20) + 1, random.nextInt(101));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BoxOffice {
+        private final Random random = new Random();
+        private int count;
+
+        void reserveAndCancel(ConcurrentReservationService service) {
+            SeatAssignment reservation = service.reserve("bench" + count++, random.nextInt(20) + 1, random.nextInt(101));
+            if (reservation != null) {
+                service.release(reservation);
+            }
+        }
+
+        int nextThreshold() {
+            return random.nextInt(50) + 1;
+        }
+    }
+
+    @Benchmark
+    @Group("lockedReads")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void lockedWriter(Venue venue, BoxOffice boxOffice) {
+        boxOffice.reserveAndCancel(venue.service);
+    }
+
+    @Benchmark
+    @Group("lockedReads")
+    @GroupThreads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean lockedReader(Venue venue, BoxOffice boxOffice) {
+        int threshold = boxOffice.nextThreshold();
+        return venue.service.read(tree -> tree.getUnassignedBlockOverThreshold(threshold) != null);
+    }
+
+    @Benchmark
+    @Group("snapshotReads")
+    @GroupThreads(1)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void snapshotWriter(Venue venue, BoxOffice boxOffice) {
+        boxOffice.reserveAndCancel(venue.service);
+    }
+
+    @Benchmark
+    @Group("snapshotReads")
+    @GroupThreads(3)
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean snapshotReader(Venue venue, BoxOffice boxOffice) {
+        return venue.service.isAvailable(boxOffice.nextThreshold());
+    }
+}
@@ -0,0 +1,77 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Parses the whole bundled reservation trace, or the one given with -Dtrace, without running any command.
+ * Divide by the number of commands (19,950 for the bundled trace) for the cost of one.
+ *
+ * The binary benchmarks read the same trace converted to the fixed-width and the varint binary formats.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TraceParseBenchmark {
+    private final String csvPath = System.getProperty("trace", "data/reservations.csv");
+    private final ReservationCommand command = new ReservationCommand();
+    private Path fixed;
+    private Path varint;
+
+    @Setup(Level.Trial)
+    public void convert() throws IOException {
+        fixed = Files.createTempFile("trace", ".bin");
+        varint = Files.createTempFile("trace", ".bin");
+        TraceConverter.convert(csvPath, fixed.toString(), false);
+        TraceConverter.convert(csvPath, varint.toString(), true);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteConverted() throws IOException {
+        Files.deleteIfExists(fixed);
+        Files.deleteIfExists(varint);
+    }
+
+    @Benchmark
+    public int parseCsv() throws IOException {
+        int commands = 0;
+        try (CsvTraceReader reader = new CsvTraceReader(csvPath)) {
+            while (reader.next(command)) {
+                commands++;
+            }
+        }
+        return commands;
+    }
+
+    @Benchmark
+    public int parseFixedBinary() throws IOException {
+        return parseBinary(fixed);
+    }
+
+    @Benchmark
+    public int parseVarintBinary() throws IOException {
+        return parseBinary(varint);
+    }
+
+    private int parseBinary(Path path) throws IOException {
+        int commands = 0;
+        try (BinaryTraceReader reader = new BinaryTraceReader(path.toString())) {
+            while (reader.next(command)) {
+                commands++;
+            }
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,68 @@
+package edu.hsutx;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Repaints a 1000 by 600 viewport of a snapshot holding treeSize blocks, off-screen. At zoom 1 the
+ * viewport shows the top of the tree and summaries below it; at zoom 200 it shows a few deep levels
+ * in full, at the bottom middle of the panel. The free-seat cache is filled before timing, as it is
+ * between the repaints of a running app.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TreeRendererBenchmark {
+    private static final int WIDTH = 1000;
+
+    @Param({"200000", "1000000"})
+    public int treeSize;
+
+    @Param({"1", "200"})
+    public double zoom;
+
+    private final BufferedImage image = new BufferedImage(1000, 600, BufferedImage.TYPE_INT_RGB);
+    private final TreeRenderer renderer = new TreeRenderer();
+    private PersistentRedBlackTree.Node<SeatAssignment> root;
+    private int x;
+    private int y;
+
+    @Setup(Level.Trial)
+    public void buildTree() {
+        PersistentRedBlackTree<SeatAssignment> tree = new PersistentRedBlackTree<>();
+        for (int i = 0; i < treeSize; i++) {
+            // Alternate free and sold blocks of 1 to 5 seats
+            SeatAssignment block = i % 2 == 0 ? new SeatAssignment(1 + i % 5, i * 5 + 1)
+                    : new SeatAssignment("owner" + i, 1 + i % 5, i * 5 + 1);
+            tree.insert(block.getLongKey(), block);
+        }
+        root = tree.snapshot().getRoot();
+        if (zoom > 1) {
+            x = (int) (WIDTH / 2 * zoom) - image.getWidth() / 2;
+            y = (int) (TreeRenderer.getPanelHeight(root, WIDTH, zoom) * zoom) - image.getHeight();
+        }
+        paint();
+    }
+
+    @Benchmark
+    public int paint() {
+        Graphics2D g = image.createGraphics();
+        g.translate(-x, -y);
+        g.clipRect(x, y, image.getWidth(), image.getHeight());
+        g.scale(zoom, zoom);
+        renderer.paint(g, root, WIDTH, zoom);
+        g.dispose();
+        return renderer.getDrawnNodes() + renderer.getDrawnSummaries();
+    }
+}
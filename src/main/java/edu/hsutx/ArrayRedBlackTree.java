@@ -0,0 +1,441 @@
+package edu.hsutx;
+
+/**
+ * A Red-Black Tree whose nodes live in parallel primitive arrays instead of Node objects.
+ * Each node is a slot index: its key, value (an owner id), left/right/parent indices and color bit are
+ * stored at that index in the arrays below. Slot 0 is the black NIL sentinel.
+ *
+ * All storage is allocated up front for a fixed capacity, so the memory ceiling is known in advance.
+ * Deleted slots go on a free list (chained through the left array) and are reused by later inserts,
+ * so inserting and deleting never allocates and never creates work for the garbage collector.
+ *
+ * Keys are packed seat keys as produced by {@link SeatAssignment#toKey(int, int)}, but any long works.
+ */
+public class ArrayRedBlackTree {
+    public static final int NIL = 0;            // slot index of the sentinel leaf
+    public static final int NO_VALUE = -1;      // returned by getValue when the key is not present
+
+    private final long[] keys;
+    private final int[] values;
+    final int[] left;                           // the links are package-private so tests can damage a tree
+    final int[] right;
+    final int[] parent;
+    private final long[] redBits;               // one color bit per slot, set = red
+
+    private int root = NIL;
+    private int size;
+    private int freeHead = NIL;                 // most recently freed slot, or NIL
+    private int nextUnused = 1;                 // first slot that has never been handed out
+
+    /**
+     * Creates a tree that can hold up to capacity nodes.
+     *
+     * @param capacity The maximum number of keys the tree can hold at once.
+     */
+    public ArrayRedBlackTree(int capacity) {
+        if (capacity < 0 || capacity == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int slots = capacity + 1;   // plus the NIL slot
+        keys = new long[slots];
+        values = new int[slots];
+        left = new int[slots];
+        right = new int[slots];
+        parent = new int[slots];
+        redBits = new long[(slots + 63) >>> 6];
+    }
+
+    /**
+     * Inserts a key with an int value.
+     *
+     * @param key   The key to insert.
+     * @param value The value to store with the key, e.g. an owner id.
+     * @return true if the key was added, false if it was already present.
+     * @throws IllegalStateException if the tree is at capacity.
+     */
+    public boolean insert(long key, int value) {
+        int y = NIL;
+        int x = root;
+        while (x != NIL) {
+            if (key == keys[x]) {
+                return false;   //a node with this key already exists
+            }
+            y = x;
+            x = key < keys[x] ? left[x] : right[x];
+        }
+
+        int z = allocate();
+        keys[z] = key;
+        values[z] = value;
+        left[z] = NIL;
+        right[z] = NIL;
+        parent[z] = y;
+        setRed(z, true);
+        if (y == NIL) {
+            root = z;
+        } else if (key < keys[y]) {
+            left[y] = z;
+        } else {
+            right[y] = z;
+        }
+        size++;
+        fixInsertion(z);
+        return true;
+    }
+
+    /**
+     * Deletes a key and returns its slot to the free list.
+     *
+     * @param key The key to delete.
+     * @return true if the key was present.
+     */
+    public boolean delete(long key) {
+        int z = find(key);
+        if (z == NIL) {
+            return false;
+        }
+
+        int y = z;
+        boolean yWasRed = isRed(y);
+        int x;
+        if (left[z] == NIL) {
+            x = right[z];
+            transplant(z, right[z]);
+        } else if (right[z] == NIL) {
+            x = left[z];
+            transplant(z, left[z]);
+        } else {
+            y = right[z];
+            while (left[y] != NIL) {
+                y = left[y];
+            }
+            yWasRed = isRed(y);
+            x = right[y];
+            if (parent[y] == z) {
+                parent[x] = y;      // set even when x is NIL so that fixDeletion can climb from it
+            } else {
+                transplant(y, right[y]);
+                right[y] = right[z];
+                parent[right[y]] = y;
+            }
+            transplant(z, y);
+            left[y] = left[z];
+            parent[left[y]] = y;
+            setRed(y, isRed(z));
+        }
+        if (!yWasRed) {
+            fixDeletion(x);
+        }
+        parent[NIL] = NIL;
+        release(z);
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the value stored with a key.
+     *
+     * @param key The key to look up.
+     * @return The value, or NO_VALUE if the key is not present.
+     */
+    public int getValue(long key) {
+        int node = find(key);
+        return node == NIL ? NO_VALUE : values[node];
+    }
+
+    public boolean contains(long key) {
+        return find(key) != NIL;
+    }
+
+    /**
+     * Finds the node with the smallest key greater than or equal to the given key.
+     *
+     * @param key The lower bound to search from.
+     * @return The slot of the ceiling node, or NIL if every key in the tree is smaller.
+     */
+    public int ceiling(long key) {
+        int current = root;
+        int best = NIL;
+        while (current != NIL) {
+            if (key == keys[current]) {
+                return current;
+            }
+            if (key < keys[current]) {
+                best = current;
+                current = left[current];
+            } else {
+                current = right[current];
+            }
+        }
+        return best;
+    }
+
+    public long keyAt(int node) {
+        return keys[node];
+    }
+
+    public int valueAt(int node) {
+        return values[node];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /**
+     * @return The maximum number of keys the tree can hold.
+     */
+    public int getCapacity() {
+        return keys.length - 1;
+    }
+
+    /**
+     * @return The number of bytes held by the node arrays, which does not change as keys come and go.
+     */
+    public long getStorageBytes() {
+        long slots = keys.length;
+        return slots * (Long.BYTES + 4L * Integer.BYTES) + redBits.length * (long) Long.BYTES;
+    }
+
+    int find(long key) {
+        int current = root;
+        while (current != NIL && keys[current] != key) {
+            current = key < keys[current] ? left[current] : right[current];
+        }
+        return current;
+    }
+
+    private int allocate() {
+        if (freeHead != NIL) {
+            int slot = freeHead;
+            freeHead = left[slot];
+            return slot;
+        }
+        if (nextUnused >= keys.length) {
+            throw new IllegalStateException("tree is full (capacity " + getCapacity() + ")");
+        }
+        return nextUnused++;
+    }
+
+    private void release(int slot) {
+        left[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private boolean isRed(int node) {
+        return (redBits[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private void setRed(int node, boolean red) {
+        if (red) {
+            redBits[node >>> 6] |= 1L << node;
+        } else {
+            redBits[node >>> 6] &= ~(1L << node);
+        }
+    }
+
+    private void transplant(int u, int v) {
+        if (parent[u] == NIL) {
+            root = v;
+        } else if (u == left[parent[u]]) {
+            left[parent[u]] = v;
+        } else {
+            right[parent[u]] = v;
+        }
+        parent[v] = parent[u];
+    }
+
+    private void fixInsertion(int z) {
+        while (isRed(parent[z])) {
+            int p = parent[z];
+            int g = parent[p];
+            if (p == left[g]) {
+                int uncle = right[g];
+                if (isRed(uncle)) {
+                    setRed(p, false);
+                    setRed(uncle, false);
+                    setRed(g, true);
+                    z = g;
+                } else {
+                    if (z == right[p]) {
+                        z = p;
+                        rotateLeft(z);
+                        p = parent[z];
+                    }
+                    setRed(p, false);
+                    setRed(g, true);
+                    rotateRight(g);
+                }
+            } else {
+                int uncle = left[g];
+                if (isRed(uncle)) {
+                    setRed(p, false);
+                    setRed(uncle, false);
+                    setRed(g, true);
+                    z = g;
+                } else {
+                    if (z == left[p]) {
+                        z = p;
+                        rotateRight(z);
+                        p = parent[z];
+                    }
+                    setRed(p, false);
+                    setRed(g, true);
+                    rotateLeft(g);
+                }
+            }
+        }
+        setRed(root, false);
+    }
+
+    private void fixDeletion(int x) {
+        while (x != root && !isRed(x)) {
+            int p = parent[x];
+            if (x == left[p]) {
+                int sibling = right[p];
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(p, true);
+                    rotateLeft(p);
+                    sibling = right[p];
+                }
+                if (!isRed(left[sibling]) && !isRed(right[sibling])) {
+                    setRed(sibling, true);
+                    x = p;
+                } else {
+                    if (!isRed(right[sibling])) {
+                        setRed(left[sibling], false);
+                        setRed(sibling, true);
+                        rotateRight(sibling);
+                        sibling = right[p];
+                    }
+                    setRed(sibling, isRed(p));
+                    setRed(p, false);
+                    setRed(right[sibling], false);
+                    rotateLeft(p);
+                    x = root;
+                }
+            } else {
+                int sibling = left[p];
+                if (isRed(sibling)) {
+                    setRed(sibling, false);
+                    setRed(p, true);
+                    rotateRight(p);
+                    sibling = left[p];
+                }
+                if (!isRed(left[sibling]) && !isRed(right[sibling])) {
+                    setRed(sibling, true);
+                    x = p;
+                } else {
+                    if (!isRed(left[sibling])) {
+                        setRed(right[sibling], false);
+                        setRed(sibling, true);
+                        rotateLeft(sibling);
+                        sibling = left[p];
+                    }
+                    setRed(sibling, isRed(p));
+                    setRed(p, false);
+                    setRed(left[sibling], false);
+                    rotateRight(p);
+                    x = root;
+                }
+            }
+        }
+        setRed(x, false);
+    }
+
+    /**
+     * Rotates left around x; x's right child takes its place.
+     */
+    private void rotateLeft(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        if (left[y] != NIL) {
+            parent[left[y]] = x;
+        }
+        parent[y] = parent[x];
+        if (parent[x] == NIL) {
+            root = y;
+        } else if (x == left[parent[x]]) {
+            left[parent[x]] = y;
+        } else {
+            right[parent[x]] = y;
+        }
+        left[y] = x;
+        parent[x] = y;
+    }
+
+    /**
+     * Rotates right around x; x's left child takes its place.
+     */
+    private void rotateRight(int x) {
+        int y = left[x];
+        left[x] = right[y];
+        if (right[y] != NIL) {
+            parent[right[y]] = x;
+        }
+        parent[y] = parent[x];
+        if (parent[x] == NIL) {
+            root = y;
+        } else if (x == right[parent[x]]) {
+            right[parent[x]] = y;
+        } else {
+            left[parent[x]] = y;
+        }
+        right[y] = x;
+        parent[x] = y;
+    }
+
+    public boolean validateRedBlackTree() {
+        if (root == NIL) {
+            return true;
+        }
+        if (isRed(root)) {
+            return false;
+        }
+
+        // Walk the whole tree along parent links, keeping the black count of the path from the root
+        int expectedBlackCount = -1;
+        int blackCount = 0;
+        int previous = NIL;
+        int node = root;
+        while (node != NIL) {
+            int next;
+            if (previous == parent[node]) {
+                // First visit: a red node has black children, and every NIL leaf ends a path with the same black count
+                if (isRed(node) && (isRed(left[node]) || isRed(right[node]))) {
+                    return false;
+                }
+                if (!isRed(node)) {
+                    blackCount++;
+                }
+                if (left[node] == NIL || right[node] == NIL) {
+                    if (expectedBlackCount == -1) {
+                        expectedBlackCount = blackCount + 1;
+                    } else if (blackCount + 1 != expectedBlackCount) {
+                        return false;
+                    }
+                }
+                next = left[node] != NIL ? left[node] : right[node] != NIL ? right[node] : parent[node];
+            } else if (previous == left[node] && right[node] != NIL) {
+                next = right[node];
+            } else {
+                next = parent[node];
+            }
+
+            if (next != parent[node] && parent[next] != node) {
+                return false;   // a broken parent link would send the walk astray
+            }
+            if (next == parent[node] && !isRed(node)) {
+                blackCount--;   // leaving the node for good
+            }
+            previous = node;
+            node = next;
+        }
+        return true;
+    }
+}
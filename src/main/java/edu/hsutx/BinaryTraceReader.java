@@ -0,0 +1,141 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a binary trace written by {@link BinaryTraceWriter}. The whole file is memory-mapped and records
+ * are decoded in place with absolute reads, so nothing is copied or allocated per command. Only the
+ * name table is decoded up front, once per name.
+ *
+ * Files are mapped in one piece, which limits them to 2 GB (about 178 million fixed-width records).
+ */
+public class BinaryTraceReader implements TraceReader {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final NameTable names;
+    private final int[] nameIds;    // id in the file -> id in the name table
+    private final boolean varint;
+    private final long commandCount;
+    private final int recordsEnd;
+    private int position = BinaryTraceWriter.HEADER_SIZE;
+    private long commandsRead;
+
+    public BinaryTraceReader(String filePath) throws IOException {
+        this(filePath, new NameTable());
+    }
+
+    /**
+     * @param filePath The trace to read.
+     * @param names    The table to intern customer names into, which may be shared with other readers.
+     */
+    public BinaryTraceReader(String filePath, NameTable names) throws IOException {
+        this.channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        this.names = names;
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Binary traces over 2 GB are not supported: " + filePath);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (size < BinaryTraceWriter.HEADER_SIZE || buffer.getInt(0) != BinaryTraceWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a binary reservation trace: " + filePath);
+        }
+        if (buffer.getShort(4) != BinaryTraceWriter.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported binary trace version " + buffer.getShort(4) + ": " + filePath);
+        }
+        varint = (buffer.getShort(6) & BinaryTraceWriter.FLAG_VARINT) != 0;
+        commandCount = buffer.getLong(8);
+        long namesOffset = buffer.getLong(16);
+        if (namesOffset < BinaryTraceWriter.HEADER_SIZE || namesOffset > size) {
+            channel.close();
+            throw new IOException("Binary trace is truncated: " + filePath);
+        }
+        recordsEnd = (int) namesOffset;
+
+        // Decode the name table once and map its ids onto the shared table
+        nameIds = new int[buffer.getInt(24)];
+        int namePosition = recordsEnd;
+        for (int i = 0; i < nameIds.length; i++) {
+            int length = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = buffer.get(namePosition++);
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            byte[] name = new byte[length];
+            buffer.get(namePosition, name);
+            namePosition += length;
+            nameIds[i] = names.intern(new String(name, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @return The number of commands in the trace, from the header.
+     */
+    public long getCommandCount() {
+        return commandCount;
+    }
+
+    @Override
+    public NameTable getNames() {
+        return names;
+    }
+
+    @Override
+    public boolean next(ReservationCommand command) throws IOException {
+        if (commandsRead == commandCount) {
+            return false;
+        }
+        if (varint) {
+            command.op = (char) buffer.get(position++);
+            command.nameId = nameIds[readVarint()];
+            if (command.op == ReservationCommand.RESERVE) {
+                command.seats = readVarint();
+                command.preference = readVarint();
+            } else {
+                command.seats = 0;
+                command.preference = 0;
+            }
+        } else {
+            command.nameId = nameIds[buffer.getInt(position)];
+            command.seats = buffer.getInt(position + 4);
+            command.op = (char) buffer.get(position + 8);
+            command.preference = buffer.getShort(position + 10);
+            position += BinaryTraceWriter.RECORD_SIZE;
+        }
+        if (position > recordsEnd) {
+            throw new IOException("Binary trace is truncated after " + commandsRead + " commands");
+        }
+        commandsRead++;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int readVarint() {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
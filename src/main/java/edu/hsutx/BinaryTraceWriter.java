@@ -0,0 +1,123 @@
+package edu.hsutx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes reservation commands in the binary trace format that {@link BinaryTraceReader} maps and reads.
+ *
+ * The file is little-endian:
+ * <pre>
+ *   header   32 bytes: "CSRT", version (short), flags (short), command count (long),
+ *                      offset of the name table (long), name count (int), 4 unused bytes
+ *   records  one per command, in trace order
+ *   names    one per name id: length in bytes (varint), then the name in UTF-8
+ * </pre>
+ * By default every record is 12 bytes (name id int, seats int, op byte, unused byte, preference short),
+ * so record i can be read in place at a fixed offset. A preference over {@link Short#MAX_VALUE} does not
+ * fit and is rejected. With {@link #FLAG_VARINT} records are packed
+ * instead: the op byte, then the name id, seats and preference as varints (a cancellation has only the
+ * name id).
+ */
+public class BinaryTraceWriter implements Closeable {
+    static final int MAGIC = 0x54525343;       // "CSRT" read as a little-endian int
+    static final short VERSION = 1;
+    static final short FLAG_VARINT = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 12;
+
+    private final FileChannel channel;
+    private final NameTable names;
+    private final boolean varint;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private long commandCount;
+
+    /**
+     * @param path   The file to create or overwrite.
+     * @param names  The table that the commands' name ids refer to; its names are written on close.
+     * @param varint true to pack records with varints, false for fixed 12-byte records.
+     */
+    public BinaryTraceWriter(Path path, NameTable names, boolean varint) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.names = names;
+        this.varint = varint;
+        channel.position(HEADER_SIZE);     // the header is written last, once the counts are known
+    }
+
+    /**
+     * Appends one command.
+     *
+     * @param command The command; its name id must come from this writer's name table.
+     * @throws IOException if the file cannot be written, or the preference does not fit a fixed-width record.
+     */
+    public void write(ReservationCommand command) throws IOException {
+        if (!varint && command.getPreference() > Short.MAX_VALUE) {
+            throw new IOException("Command " + (commandCount + 1) + ": preference " + command.getPreference()
+                    + " does not fit a fixed-width record; write varint records instead");
+        }
+        if (buffer.remaining() < 16) {
+            flush();
+        }
+        if (varint) {
+            buffer.put((byte) command.getOp());
+            putVarint(command.getNameId());
+            if (command.getOp() == ReservationCommand.RESERVE) {
+                putVarint(command.getSeats());
+                putVarint(command.getPreference());
+            }
+        } else {
+            buffer.putInt(command.getNameId());
+            buffer.putInt(command.getSeats());
+            buffer.put((byte) command.getOp());
+            buffer.put((byte) 0);
+            buffer.putShort((short) command.getPreference());
+        }
+        commandCount++;
+    }
+
+    /**
+     * Writes the name table and the header, then closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            long namesOffset = channel.position();
+            names.write(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort(varint ? FLAG_VARINT : 0);
+            header.putLong(commandCount);
+            header.putLong(namesOffset);
+            header.putInt(names.size());
+            header.flip();
+            channel.write(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,149 @@
+package edu.hsutx;
+
+/**
+ * A binary buddy allocator over the venue. Every block is a power of two seats long and starts at a seat
+ * offset that is a multiple of its length, so a block's buddy (the other half of the block it was split
+ * from) is found by flipping one bit of its offset, and released blocks coalesce in O(log n) per level
+ * without looking at any other neighbor.
+ *
+ * A party of k seats is given a whole block of the next power of two; the seats of that block the party
+ * does not use are lost until it leaves (internal fragmentation, see {@link #getWastedSeatCount()}). The
+ * preference places the party inside its block, as the tree strategies place it inside their free block,
+ * but never past the end of it.
+ *
+ * The venue is cut into the largest aligned blocks that fit when the allocator is created. Offsets past the
+ * last seat are never free, so nothing coalesces beyond the venue. The free blocks of each size are kept in
+ * their own tree ordered by offset, and the lowest is always split first.
+ */
+public class BuddyPlacement implements PlacementStrategy {
+    private final int maxOrder;
+    private final LongRedBlackTree<SeatAssignment>[] free;      // order -> free blocks of 2^order seats, by offset
+    private final LongRedBlackTree<SeatAssignment> allocated = new LongRedBlackTree<>();    // block offset -> reservation
+    private long freeSeats;
+    private int freeBlockCount;
+    private long wastedSeats;
+
+    /**
+     * @param seats The number of seats in the venue, numbered from 1 and all free to begin with.
+     */
+    public BuddyPlacement(int seats) {
+        maxOrder = orderFor(seats);
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        LongRedBlackTree<SeatAssignment>[] trees = new LongRedBlackTree[maxOrder + 1];
+        free = trees;
+        for (int order = 0; order <= maxOrder; order++) {
+            free[order] = new LongRedBlackTree<>();
+        }
+
+        int offset = 0;
+        while (offset < seats) {
+            int order = Math.min(Integer.numberOfTrailingZeros(offset), maxOrder);     // alignment allows this much
+            while (offset + (1 << order) > seats) {
+                order--;
+            }
+            addFree(offset, order);
+            offset += 1 << order;
+        }
+    }
+
+    // The order of the smallest block that holds the given number of seats
+    private static int orderFor(int seats) {
+        return 32 - Integer.numberOfLeadingZeros(seats - 1);
+    }
+
+    private void addFree(int offset, int order) {
+        free[order].insert(offset, new SeatAssignment(1 << order, offset + 1));
+        freeSeats += 1 << order;
+        freeBlockCount++;
+    }
+
+    private void removeFree(int offset, int order) {
+        free[order].delete(offset);
+        freeSeats -= 1 << order;
+        freeBlockCount--;
+    }
+
+    @Override
+    public String getName() {
+        return "buddy";
+    }
+
+    @Override
+    public SeatAssignment reserve(String owner, int seatsNeeded, int preference) {
+        if (seatsNeeded < 1 || orderFor(seatsNeeded) > maxOrder) {
+            return null;
+        }
+        int order = orderFor(seatsNeeded);
+        int available = order;
+        while (available <= maxOrder && free[available].isEmpty()) {
+            available++;
+        }
+        if (available > maxOrder) {
+            return null;
+        }
+
+        int offset = free[available].select(0).getSeatStartIndex() - 1;
+        removeFree(offset, available);
+        while (available > order) {    // split, keeping the lower half and freeing the upper
+            available--;
+            addFree(offset + (1 << available), available);
+        }
+
+        int unused = (1 << order) - seatsNeeded;
+        int shift = (int) (unused * (Math.max(0, Math.min(preference, 100)) / 100.0));
+        SeatAssignment reservation = new SeatAssignment(owner, seatsNeeded, offset + shift + 1);
+        allocated.insert(offset, reservation);
+        wastedSeats += unused;
+        return reservation;
+    }
+
+    @Override
+    public SeatAssignment release(SeatAssignment reservation) {
+        int order = orderFor(reservation.getSeatQuantity());
+        int offset = (reservation.getSeatStartIndex() - 1) & -(1 << order);     // the block the party sits in
+        if (order > maxOrder || allocated.getValue(offset) != reservation) {
+            return null;
+        }
+        allocated.delete(offset);
+        wastedSeats -= (1 << order) - reservation.getSeatQuantity();
+
+        while (order < maxOrder) {
+            int buddy = offset ^ (1 << order);
+            if (free[order].getValue(buddy) == null) {
+                break;
+            }
+            removeFree(buddy, order);
+            offset = Math.min(offset, buddy);
+            order++;
+        }
+        addFree(offset, order);
+        return free[order].getValue(offset);
+    }
+
+    @Override
+    public long getFreeSeatCount() {
+        return freeSeats;
+    }
+
+    @Override
+    public int getFreeBlockCount() {
+        return freeBlockCount;
+    }
+
+    @Override
+    public int getLargestFreeBlock() {
+        for (int order = maxOrder; order >= 0; order--) {
+            if (!free[order].isEmpty()) {
+                return 1 << order;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The seats inside reserved blocks that their parties do not use.
+     */
+    public long getWastedSeatCount() {
+        return wastedSeats;
+    }
+}
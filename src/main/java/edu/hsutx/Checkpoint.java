@@ -0,0 +1,193 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes and restores checkpoints: every block of a CowboySeatTree in key order, so that a restart loads
+ * the checkpoint and replays only the write-ahead log written since, instead of the whole log.
+ *
+ * A checkpoint is written from an immutable {@link PersistentRedBlackTree.Snapshot}, so it can take as long
+ * as it likes on a background thread while writers carry on. It is written to a temporary file and renamed
+ * into place, so a crash never leaves half a checkpoint behind.
+ *
+ * The file is little-endian:
+ * <pre>
+ *   header   32 bytes: "CSCP", version (short), 2 unused bytes, log generation (long), block count (int),
+ *                      offset of the name table (long), name count (int)
+ *   blocks   12 bytes each, in key order: start seat (int), seat count (int), owner (int)
+ *   names    one per owner id: length in bytes (varint), then the name in UTF-8
+ * </pre>
+ * The owner is 0 for a free block, id + 1 for the customer's current reservation and -(id + 1) for an
+ * older block the customer still holds. The log generation is that of the first log file the checkpoint
+ * does not cover.
+ */
+public final class Checkpoint {
+    static final int MAGIC = 0x50435343;        // "CSCP" read as a little-endian int
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 12;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Writes a checkpoint and renames it into place.
+     *
+     * @param path       The checkpoint file; an older checkpoint there is replaced.
+     * @param snapshot   The blocks to write.
+     * @param current    Each customer's current reservation when the snapshot was taken.
+     * @param generation The generation of the first log file the snapshot does not cover.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    public static void write(Path path, PersistentRedBlackTree.Snapshot<SeatAssignment> snapshot,
+                             Collection<SeatAssignment> current, long generation) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Set<SeatAssignment> isCurrent = Collections.newSetFromMap(new IdentityHashMap<>(current.size() * 2));
+        isCurrent.addAll(current);
+        NameTable names = new NameTable();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);     // the header is written last, once the counts are known
+
+            // In-order walk with an explicit stack
+            Deque<PersistentRedBlackTree.Node<SeatAssignment>> stack = new ArrayDeque<>();
+            PersistentRedBlackTree.Node<SeatAssignment> node = snapshot.getRoot();
+            while (node != null || !stack.isEmpty()) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.left;
+                }
+                node = stack.pop();
+                SeatAssignment block = node.value;
+                int owner = 0;
+                if (block.getOwner() != null) {
+                    owner = names.intern(block.getOwner()) + 1;
+                    if (!isCurrent.contains(block)) {
+                        owner = -owner;
+                    }
+                }
+                if (buffer.remaining() < RECORD_SIZE) {
+                    flush(channel, buffer);
+                }
+                buffer.putInt(block.getSeatStartIndex());
+                buffer.putInt(block.getSeatQuantity());
+                buffer.putInt(owner);
+                node = node.right;
+            }
+
+            flush(channel, buffer);
+            long namesOffset = channel.position();
+            names.write(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) 0);
+            header.putLong(generation);
+            header.putInt(snapshot.getSize());
+            header.putLong(namesOffset);
+            header.putInt(names.size());
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.syncDirectory(path);
+    }
+
+    /**
+     * Maps a checkpoint and reads its blocks into a venue, which must not have had any changes applied yet.
+     *
+     * @param path  The checkpoint file.
+     * @param venue Receives the blocks.
+     * @return The generation of the first log file the checkpoint does not cover.
+     * @throws IOException if the file cannot be read or is not a checkpoint.
+     */
+    static long restore(Path path, RecoveredVenue venue) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Checkpoints over 2 GB are not supported: " + path);
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            file.order(ByteOrder.LITTLE_ENDIAN);
+            if (size < HEADER_SIZE || file.getInt(0) != MAGIC) {
+                throw new IOException("Not a checkpoint: " + path);
+            }
+            if (file.getShort(4) != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + file.getShort(4) + ": " + path);
+            }
+            long generation = file.getLong(8);
+            int blockCount = file.getInt(16);
+            long namesOffset = file.getLong(20);
+            if (namesOffset != HEADER_SIZE + (long) blockCount * RECORD_SIZE || namesOffset > size) {
+                throw new IOException("Checkpoint is truncated: " + path);
+            }
+
+            String[] names = new String[file.getInt(28)];
+            int position = (int) namesOffset;
+            for (int id = 0; id < names.length; id++) {
+                int length = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = file.get(position++);
+                    length |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                byte[] name = new byte[length];
+                file.get(position, name);
+                position += length;
+                names[id] = new String(name, StandardCharsets.UTF_8);
+            }
+
+            List<SeatAssignment> blocks = new ArrayList<>(blockCount);
+            Map<String, Long> current = new HashMap<>();
+            position = HEADER_SIZE;
+            for (int i = 0; i < blockCount; i++, position += RECORD_SIZE) {
+                int start = file.getInt(position);
+                int seats = file.getInt(position + 4);
+                int owner = file.getInt(position + 8);
+                if (owner == 0) {
+                    blocks.add(new SeatAssignment(seats, start));
+                } else {
+                    SeatAssignment block = new SeatAssignment(names[Math.abs(owner) - 1], seats, start);
+                    blocks.add(block);
+                    if (owner > 0) {
+                        current.put(block.getOwner(), block.getLongKey());
+                    }
+                }
+            }
+            venue.loadCheckpoint(blocks, current);
+            return generation;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
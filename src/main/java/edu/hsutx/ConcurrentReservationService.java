@@ -0,0 +1,292 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Thread-safe access to a CowboySeatTree for many box-office threads at once.
+ *
+ * Every change (find a free block, delete it, split it, insert the pieces) runs under the write lock, so
+ * it is atomic and no seat can be handed out twice. Searches that walk the tree take the shared read lock:
+ * a walk that overlapped a rotation could follow a half-updated pair of child pointers, so it isn't safe
+ * to run optimistically. Counters that are a single field read use StampedLock optimistic reads and never
+ * block writers.
+ *
+ * After {@link #enableSnapshots()}, the tree also publishes immutable snapshots on every change. Renderers
+ * and availability checks then read a snapshot with no lock at all.
+ *
+ * With a {@link WriteAheadLog} attached, the tree records each change in the log under the write lock and
+ * the change is committed after the lock is released, so threads waiting on the same fsync don't hold up
+ * the tree. A change returns only once it is durable.
+ */
+public class ConcurrentReservationService {
+    private final CowboySeatTree seatTree;
+    private final StampedLock lock = new StampedLock();
+    // Published at the end of each write, so readers never see a block half-split or half-merged
+    private volatile PersistentRedBlackTree.Snapshot<SeatAssignment> published;
+    private volatile PersistentRedBlackTree.Snapshot<SeatAssignment> publishedFree;
+    private WriteAheadLog log;      // null unless changes are logged
+
+    public ConcurrentReservationService(CowboySeatTree seatTree) {
+        this.seatTree = seatTree;
+    }
+
+    /**
+     * Atomically reserves a block of seats for an owner.
+     *
+     * @throws UncheckedIOException if the change could not be written to the write-ahead log.
+     * @see CowboySeatTree#reserve(String, int, int)
+     */
+    public SeatAssignment reserve(String owner, int seatsNeeded, int preference) {
+        return write(tree -> tree.reserve(owner, seatsNeeded, preference));
+    }
+
+    /**
+     * Atomically reserves seats for a whole batch of parties under one acquisition of the write lock.
+     *
+     * @throws UncheckedIOException if the change could not be written to the write-ahead log.
+     * @see CowboySeatTree#reserveBatch(List)
+     */
+    public List<SeatAssignment> reserveBatch(List<CowboySeatTree.Request> requests) {
+        return write(tree -> tree.reserveBatch(requests));
+    }
+
+    /**
+     * Atomically cancels a reservation and merges its seats back into the pool.
+     *
+     * @throws UncheckedIOException if the change could not be written to the write-ahead log.
+     * @see CowboySeatTree#release(SeatAssignment)
+     */
+    public SeatAssignment release(SeatAssignment reservation) {
+        return write(tree -> tree.release(reservation));
+    }
+
+    /**
+     * Atomically cancels an owner's current reservation.
+     *
+     * @throws UncheckedIOException if the change could not be written to the write-ahead log.
+     * @see CowboySeatTree#cancel(String)
+     */
+    public SeatAssignment cancel(String owner) {
+        return write(tree -> tree.cancel(owner));
+    }
+
+    /**
+     * Atomically cancels every block an owner holds, as one change.
+     *
+     * @throws UncheckedIOException if the change could not be written to the write-ahead log.
+     * @see CowboySeatTree#cancelAll(String)
+     */
+    public List<SeatAssignment> cancelAll(String owner) {
+        return write(tree -> tree.cancelAll(owner));
+    }
+
+    /**
+     * Adds a block to the tree, e.g. the starting block of empty seats.
+     */
+    public void insert(SeatAssignment seatAssignment) {
+        write(tree -> {
+            tree.insert(seatAssignment);
+            return null;
+        });
+    }
+
+    /**
+     * Runs a function that changes the tree while holding the write lock, as one atomic change. The change
+     * is published to snapshot readers and, with a write-ahead log, committed before this returns.
+     * Callers use it to keep their own bookkeeping in step with the tree.
+     *
+     * If the function throws, whatever it had changed is undone, its records are dropped from the log and
+     * nothing is published, so neither readers nor the next change see it half done.
+     *
+     * @param writer The function to run.
+     * @return Whatever the function returns.
+     * @throws UncheckedIOException if the change could not be written to the write-ahead log.
+     */
+    public <T> T write(Function<CowboySeatTree, T> writer) {
+        T result;
+        WriteAheadLog log;
+        long sequence = 0;
+        long stamp = lock.writeLock();
+        try {
+            seatTree.beginChange();
+            try {
+                result = writer.apply(seatTree);
+            } catch (RuntimeException e) {
+                seatTree.undoChange();
+                if (this.log != null) {
+                    this.log.discardChange();
+                }
+                throw e;
+            }
+            seatTree.endChange();
+            log = this.log;
+            if (log != null) {
+                sequence = log.endChange();
+            }
+            publish();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        commit(log, sequence);
+        return result;
+    }
+
+    /**
+     * Makes the tree publish immutable snapshots for lock-free readers.
+     */
+    public void enableSnapshots() {
+        long stamp = lock.writeLock();
+        try {
+            seatTree.enableSnapshots();
+        } finally {
+            publish();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Starts recording every change to the tree in a write-ahead log. The log should already describe the
+     * tree as it is now, e.g. because the tree was just recovered from it.
+     *
+     * @param log The log to record to.
+     */
+    public void setWriteAheadLog(WriteAheadLog log) {
+        long stamp = lock.writeLock();
+        try {
+            this.log = log;
+            seatTree.setWriteAheadLog(log);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the tree and rolls the write-ahead log at the same instant, so the snapshot holds
+     * exactly the changes in the log's archived segments. This is the only part of a checkpoint that
+     * blocks writers. Snapshots are enabled first if they are not already.
+     *
+     * @param capture Run under the same lock, to copy anything else the checkpoint needs from the tree.
+     * @return The snapshot.
+     * @throws IOException if the log cannot be rolled.
+     * @throws IllegalStateException if no write-ahead log is attached.
+     */
+    public PersistentRedBlackTree.Snapshot<SeatAssignment> snapshotAndRollLog(Consumer<CowboySeatTree> capture)
+            throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            if (log == null) {
+                throw new IllegalStateException("No write-ahead log is attached");
+            }
+            seatTree.enableSnapshots();
+            log.roll();
+            capture.accept(seatTree);
+            return seatTree.getSnapshot();
+        } finally {
+            publish();
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Called after releasing the write lock, so other writers can join the same group commit
+    private static void commit(WriteAheadLog log, long sequence) {
+        if (sequence == 0) {
+            return;
+        }
+        try {
+            log.commit(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return A consistent snapshot of every block, taken without locking, or null if snapshots are not enabled.
+     */
+    public PersistentRedBlackTree.Snapshot<SeatAssignment> snapshot() {
+        return published;
+    }
+
+    // Called while holding the write lock
+    private void publish() {
+        published = seatTree.getSnapshot();
+        publishedFree = seatTree.getFreeSnapshot();
+    }
+
+    /**
+     * Checks whether a party of the given size could be seated right now.
+     * Uses the free-block snapshot when snapshots are enabled, and the read lock otherwise.
+     *
+     * @param seatsNeeded The size of the party.
+     * @return true if some unassigned block holds at least seatsNeeded seats.
+     */
+    public boolean isAvailable(int seatsNeeded) {
+        PersistentRedBlackTree.Snapshot<SeatAssignment> free = publishedFree;
+        if (free != null) {
+            return free.getCeilingValue(SeatAssignment.toKey(seatsNeeded, 0)) != null;
+        }
+        return read(tree -> tree.getUnassignedBlockOverThreshold(seatsNeeded) != null);
+    }
+
+    /**
+     * @return The number of unassigned blocks, read without blocking writers.
+     */
+    public int getFreeBlockCount() {
+        long stamp = lock.tryOptimisticRead();
+        int count = seatTree.getFreeBlockCount();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = seatTree.getFreeBlockCount();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of assigned blocks, read without blocking writers.
+     */
+    public int getReservationCount() {
+        long stamp = lock.tryOptimisticRead();
+        int count = seatTree.getReservationCount();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = seatTree.getReservationCount();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param owner The owner to look up.
+     * @return Every block the owner holds, oldest first.
+     */
+    public List<SeatAssignment> getReservations(String owner) {
+        return read(tree -> tree.getReservations(owner));
+    }
+
+    /**
+     * Runs a read-only function against the tree while holding the shared read lock.
+     * The function must not modify the tree or keep references to its nodes after it returns.
+     *
+     * @param reader The function to run.
+     * @return Whatever the function returns.
+     */
+    public <T> T read(Function<CowboySeatTree, T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(seatTree);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -1,75 +1,686 @@
-package edu.hsutx;
-
-/**
- * CowboySeatTree is a Red-Black Tree that stores SeatAssignment objects as the values for the tree nodes.
- * It extends the generic RedBlackTree class and specializes it for the SeatAssignment value type.
- *
- * This class will also include additional methods to search for specific seat assignment blocks.
- */
-public class CowboySeatTree extends RedBlackTree<SeatAssignment> {
-
-    /**
-     * Inserts a new SeatAssignment into the tree using the SeatAssignment's key as the search key.
-     *
-     * @param seatAssignment The SeatAssignment object to insert into the tree.
-     */
-    public void insert(SeatAssignment seatAssignment) {
-        String key = seatAssignment.getKey();  // Get the key from SeatAssignment (for tree ordering)
-        super.insert(key, seatAssignment);     // Use the RedBlackTree's insert method
-    }
-
-    /**
-     * Deletes a SeatAssignment from the tree by its key.
-     *
-     * @param seatAssignment The SeatAssignment object to remove from the tree.
-     */
-    public void delete(SeatAssignment seatAssignment) {
-        String key = seatAssignment.getKey();  // Get the key from SeatAssignment
-        super.delete(key);                     // Use the RedBlackTree's delete method
-    }
-
-    /**
-     * Finds a SeatAssignment in the tree by its key.
-     *
-     * @param key The key of the SeatAssignment to search for.
-     * @return The SeatAssignment object if found, otherwise null.
-     */
-    public SeatAssignment getValue(String key) {
-        return super.getValue(key);  // Use the RedBlackTree's getValue method to get the value (SeatAssignment)
-    }
-
-    /**
-     * Finds the first unassigned block of seats with size >= threshold
-     */
-
-    private Node traverseTreeForUnassigned(Node n, String key) {
-        if (n==null) return null;
-        if (n.key == null) return null;
-        if (key.compareTo(n.key)<0) {
-            Node bestLeftOption = null;
-            if (n.left != null) bestLeftOption = traverseTreeForUnassigned(n.left, key);
-            if (bestLeftOption != null) return bestLeftOption;
-
-            // We didn't find a good node to the left, check this node
-            if (n.value.getOwner() == null) return n;
-        }
-
-        return traverseTreeForUnassigned(n.right, key);
-    }
-
-    public SeatAssignment getUnassignedBlockOverThreshold(int threshold) {
-
-        String searchKey = String.format("%06d", threshold) + "0000000";
-        // Traverse the tree to find the first unassigned node with key > searchkey
-        // a node is unassigned if node.value.getOwner() is null
-        Node unassignedNode = traverseTreeForUnassigned(this.root, searchKey);
-
-        if (unassignedNode == null) return null;
-        else return unassignedNode.value;
-
-    }
-
-    public Node getRoot() {
-        return this.root;
-    }
-}
\ No newline at end of file
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * CowboySeatTree is a Red-Black Tree that stores SeatAssignment objects as the values for the tree nodes.
+ * It extends the long-keyed LongRedBlackTree class and specializes it for the SeatAssignment value type,
+ * using each SeatAssignment's packed key for ordering.
+ *
+ * This class will also include additional methods to search for specific seat assignment blocks.
+ * Unassigned blocks weigh their seat count and assigned blocks weigh nothing, so the tree's subtree
+ * aggregates track the free seats.
+ */
+public class CowboySeatTree extends LongRedBlackTree<SeatAssignment> {
+    /**
+     * How {@link #reserve(String, int, int, Fit)} picks the unassigned block to split.
+     */
+    public enum Fit {
+        /** The smallest block that fits, leaving the large blocks for large parties. */
+        BEST,
+        /** The block with the lowest seat numbers that fits, packing reservations toward seat 1. */
+        FIRST,
+        /** The largest block, so that what is left over is as large as possible. */
+        WORST
+    }
+
+    // Unassigned blocks only, keyed the same way as the main tree (size, then start seat)
+    private final LongRedBlackTree<SeatAssignment> freeBlocks = new LongRedBlackTree<>();
+    // Unassigned blocks only, keyed by start seat so that free neighbors can be found for merging. Each block
+    // weighs its seat count, so the first block in seat order that fits a party is found in O(log n).
+    private final LongRedBlackTree<SeatAssignment> freeByStart = new LongRedBlackTree<>() {
+        @Override
+        protected long weightOf(SeatAssignment seatAssignment) {
+            return seatAssignment.getSeatQuantity();
+        }
+    };
+    // Assigned blocks only, grouped by interned owner id
+    private final OwnerIndex owners = new OwnerIndex();
+    // Immutable copies of the block tree and free-block index for lock-free readers; null until enabled
+    private PersistentRedBlackTree<SeatAssignment> blockSnapshots;
+    private PersistentRedBlackTree<SeatAssignment> freeSnapshots;
+    // Receives every block inserted or deleted; null unless changes are logged
+    private WriteAheadLog log;
+    // How to put back each step of the change in progress, in the order the steps were made
+    private final List<Runnable> undoSteps = new ArrayList<>();
+    private boolean recordingUndo;
+
+    @Override
+    protected long weightOf(SeatAssignment seatAssignment) {
+        return seatAssignment.getOwner() == null ? seatAssignment.getSeatQuantity() : 0;
+    }
+
+    /**
+     * Inserts a new SeatAssignment into the tree using the SeatAssignment's key as the search key.
+     *
+     * @param seatAssignment The SeatAssignment object to insert into the tree.
+     * @return true if the block was added, false if a block with the same key is already in the tree.
+     */
+    public boolean insert(SeatAssignment seatAssignment) {
+        long key = seatAssignment.getLongKey();  // Get the key from SeatAssignment (for tree ordering)
+        return insert(key, seatAssignment);
+    }
+
+    /**
+     * Inserts a SeatAssignment under the given key and records it in the free-block or reservation index.
+     *
+     * @param key            The key of the SeatAssignment.
+     * @param seatAssignment The SeatAssignment object to insert into the tree.
+     * @return true if the block was added, false if the key is already in the tree.
+     */
+    @Override
+    public boolean insert(long key, SeatAssignment seatAssignment) {
+        if (!super.insert(key, seatAssignment)) {   // Use the RedBlackTree's insert method
+            return false;   // duplicate key, nothing was added
+        }
+        if (seatAssignment.getOwner() == null) {
+            freeBlocks.insert(key, seatAssignment);
+            freeByStart.insert(seatAssignment.getSeatStartIndex(), seatAssignment);
+        } else {
+            owners.add(seatAssignment);
+        }
+        if (blockSnapshots != null) {
+            blockSnapshots.insert(key, seatAssignment);
+            if (seatAssignment.getOwner() == null) {
+                freeSnapshots.insert(key, seatAssignment);
+            }
+        }
+        if (log != null) {
+            log.logInsert(seatAssignment);
+        }
+        if (recordingUndo) {
+            undoSteps.add(() -> delete(key));
+        }
+        return true;
+    }
+
+    /**
+     * Loads blocks sorted by their packed key into an empty tree in O(n), e.g. a restored or pre-sold arena.
+     *
+     * @param blocks The blocks to load, in strictly increasing key order.
+     * @see LongRedBlackTree#bulkLoad(Iterator, ToLongFunction)
+     */
+    public void bulkLoad(Iterator<? extends SeatAssignment> blocks) {
+        bulkLoad(blocks, SeatAssignment::getLongKey);
+    }
+
+    /**
+     * Loads sorted blocks into the tree and builds the free-block and owner indexes from them.
+     * The free-block index is built in O(n); the by-start index needs its own order, so its blocks are
+     * sorted first. No owner has a current reservation afterwards until one is set on {@link #getOwnerIndex()}.
+     */
+    @Override
+    public void bulkLoad(List<? extends SeatAssignment> blocks, ToLongFunction<? super SeatAssignment> keyOf) {
+        super.bulkLoad(blocks, keyOf);
+        List<SeatAssignment> free = new ArrayList<>();
+        for (SeatAssignment block : blocks) {
+            if (block.getOwner() == null) {
+                free.add(block);
+            } else {
+                owners.add(block);
+            }
+        }
+
+        freeBlocks.bulkLoad(free, keyOf);
+        free.sort(Comparator.comparingInt(SeatAssignment::getSeatStartIndex));
+        freeByStart.bulkLoad(free, SeatAssignment::getSeatStartIndex);
+        if (blockSnapshots != null) {
+            copyToSnapshots();
+        }
+    }
+
+    /**
+     * Deletes a SeatAssignment from the tree by its key.
+     *
+     * @param seatAssignment The SeatAssignment object to remove from the tree.
+     */
+    public void delete(SeatAssignment seatAssignment) {
+        long key = seatAssignment.getLongKey();  // Get the key from SeatAssignment
+        delete(key);
+    }
+
+    /**
+     * Deletes the SeatAssignment stored under the given key from the tree and from its index.
+     *
+     * @param key The key of the SeatAssignment to remove.
+     */
+    @Override
+    public void delete(long key) {
+        SeatAssignment seatAssignment = getValue(key);
+        if (seatAssignment == null) {
+            return;
+        }
+        super.delete(key);                     // Use the RedBlackTree's delete method
+        boolean wasCurrent = false;
+        if (seatAssignment.getOwner() == null) {
+            freeBlocks.delete(key);
+            freeByStart.delete(seatAssignment.getSeatStartIndex());
+        } else {
+            wasCurrent = recordingUndo && owners.getCurrent(seatAssignment.getOwner()) == seatAssignment;
+            owners.remove(seatAssignment);
+        }
+        if (blockSnapshots != null) {
+            blockSnapshots.delete(key);
+            freeSnapshots.delete(key);
+        }
+        if (log != null) {
+            log.logDelete(seatAssignment);
+        }
+        if (recordingUndo) {
+            boolean restoreCurrent = wasCurrent;
+            undoSteps.add(() -> {
+                insert(key, seatAssignment);
+                if (restoreCurrent) {
+                    owners.setCurrent(seatAssignment);
+                }
+            });
+        }
+    }
+
+    /**
+     * Deletes a SeatAssignment from the tree by the String form of its key.
+     *
+     * @param key The String key of the SeatAssignment to remove.
+     */
+    public void delete(String key) {
+        delete(SeatAssignment.parseKey(key));
+    }
+
+    /**
+     * Finds a SeatAssignment in the tree by the String form of its key.
+     *
+     * @param key The key of the SeatAssignment to search for.
+     * @return The SeatAssignment object if found, otherwise null.
+     */
+    public SeatAssignment getValue(String key) {
+        return getValue(SeatAssignment.parseKey(key));  // Use the LongRedBlackTree's getValue method
+    }
+
+    /**
+     * Finds the smallest unassigned block of seats with size >= threshold.
+     * Only unassigned blocks live in the free-block index, so this is a single ceiling search.
+     *
+     * @param threshold The number of seats needed.
+     * @return The best-fitting unassigned block, or null if no block is large enough.
+     */
+    public SeatAssignment getUnassignedBlockOverThreshold(int threshold) {
+        long searchKey = SeatAssignment.toKey(threshold, 0);
+        return freeBlocks.getCeilingValue(searchKey);
+    }
+
+    /**
+     * Checks whether any unassigned block holds at least the given number of seats, in O(1).
+     *
+     * @param threshold The number of seats needed.
+     * @return true if a large enough unassigned block exists.
+     */
+    public boolean hasUnassignedBlockOverThreshold(int threshold) {
+        return getMaxWeight() >= Math.max(threshold, 1);  // assigned blocks weigh 0, so never match them
+    }
+
+    /**
+     * Finds the smallest unassigned block of seats with size >= threshold by searching the main tree,
+     * skipping every subtree whose largest free block is too small. The main tree orders blocks by size
+     * first, so the first heavy enough block in key order is the best fit.
+     *
+     * @param threshold The number of seats needed.
+     * @return The best-fitting unassigned block, or null if no block is large enough.
+     */
+    public SeatAssignment findUnassignedBlockOverThreshold(int threshold) {
+        return getFirstValueWithWeightAtLeast(Math.max(threshold, 1));  // assigned blocks weigh 0, so never match them
+    }
+
+    /**
+     * Finds an unassigned block of at least the given size, chosen by the given fit.
+     *
+     * @param threshold The number of seats needed.
+     * @param fit       Which of the blocks that fit to pick.
+     * @return The chosen unassigned block, or null if no block is large enough.
+     */
+    public SeatAssignment getUnassignedBlockOverThreshold(int threshold, Fit fit) {
+        switch (fit) {
+            case FIRST:
+                return freeByStart.getFirstValueWithWeightAtLeast(Math.max(threshold, 1));
+            case WORST:
+                if (freeBlocks.isEmpty()) {
+                    return null;
+                }
+                SeatAssignment largest = freeBlocks.select(freeBlocks.getSize() - 1);
+                return largest.getSeatQuantity() >= threshold ? largest : null;
+            default:
+                return getUnassignedBlockOverThreshold(threshold);
+        }
+    }
+
+    /**
+     * @return The number of seats in the largest unassigned block, in O(1).
+     */
+    public int getLargestFreeBlock() {
+        return (int) getMaxWeight();
+    }
+
+    /**
+     * @return The total number of unassigned seats, in O(1).
+     */
+    public long getFreeSeatCount() {
+        return getTotalWeight();
+    }
+
+    /**
+     * Reserves a block of seats for an owner. The smallest unassigned block that fits is split into the
+     * reservation and up to two unassigned remainders. The preference (0-100) picks where inside the
+     * free block the reservation lands: 0 places it at the start of the block and 100 at the end. Values
+     * outside 0-100 are clamped.
+     *
+     * @param owner       The owner of the new reservation.
+     * @param seatsNeeded The number of seats to reserve.
+     * @param preference  Where in the free block to place the seats, as a percentage.
+     * @return The new reservation, or null if no unassigned block is large enough.
+     */
+    public SeatAssignment reserve(String owner, int seatsNeeded, int preference) {
+        return reserve(owner, seatsNeeded, preference, Fit.BEST);
+    }
+
+    /**
+     * Reserves a block of seats for an owner like {@link #reserve(String, int, int)}, but splits the
+     * unassigned block the given fit picks rather than always the smallest.
+     *
+     * @param owner       The owner of the new reservation.
+     * @param seatsNeeded The number of seats to reserve.
+     * @param preference  Where in the free block to place the seats, as a percentage.
+     * @param fit         Which of the unassigned blocks that fit to split.
+     * @return The new reservation, or null if no unassigned block is large enough or another block already
+     *         has the new reservation's key.
+     */
+    public SeatAssignment reserve(String owner, int seatsNeeded, int preference, Fit fit) {
+        SeatAssignment emptyBlock = getUnassignedBlockOverThreshold(seatsNeeded, fit);
+        if (emptyBlock == null) {
+            return null;
+        }
+
+        return split(emptyBlock, owner, seatsNeeded, startSeat(emptyBlock, seatsNeeded, preference));
+    }
+
+    // Where a reservation starts inside a free block; the preference is clamped so the party stays inside it
+    private static int startSeat(SeatAssignment emptyBlock, int seatsNeeded, int preference) {
+        int unused = emptyBlock.getSeatQuantity() - seatsNeeded;
+        return (int) (unused * (Math.max(0, Math.min(preference, 100)) / 100.0)) + emptyBlock.getSeatStartIndex();
+    }
+
+    /**
+     * Finds the unassigned block nearest a target seat that can hold the given number of seats: one holding
+     * the target if it fits, otherwise the closest one before or after it. The by-start index keeps the
+     * largest block in every subtree, so each side is one O(log n) descent however many fragments there are.
+     *
+     * @param seatsNeeded The number of seats needed.
+     * @param targetSeat  The seat to sit as close to as possible.
+     * @return The nearest block that fits, or null if no unassigned block is large enough.
+     */
+    public SeatAssignment getNearestUnassignedBlock(int seatsNeeded, int targetSeat) {
+        long weight = Math.max(seatsNeeded, 1);
+        SeatAssignment before = freeByStart.getLastValueWithWeightAtLeast(targetSeat, weight);
+        SeatAssignment after = freeByStart.getFirstValueWithWeightAtLeast(targetSeat + 1, weight);
+        if (before == null || after == null) {
+            return before == null ? after : before;
+        }
+        int beforeGap = Math.max(0, targetSeat - (before.getSeatStartIndex() + before.getSeatQuantity() - 1));
+        return beforeGap <= after.getSeatStartIndex() - targetSeat ? before : after;
+    }
+
+    /**
+     * Reserves a block of seats for an owner as close to a target seat as the free blocks allow. The
+     * reservation is centered on the target when the nearest free block holds it, and otherwise pushed
+     * against the end of the block nearest the target.
+     *
+     * @param owner       The owner of the new reservation.
+     * @param seatsNeeded The number of seats to reserve.
+     * @param targetSeat  The seat to sit as close to as possible.
+     * @return The new reservation, or null if no unassigned block is large enough.
+     */
+    public SeatAssignment reserveNear(String owner, int seatsNeeded, int targetSeat) {
+        SeatAssignment emptyBlock = getNearestUnassignedBlock(seatsNeeded, targetSeat);
+        if (emptyBlock == null) {
+            return null;
+        }
+        int lowest = emptyBlock.getSeatStartIndex();
+        int highest = lowest + emptyBlock.getSeatQuantity() - seatsNeeded;
+        int startSeat = Math.max(lowest, Math.min(targetSeat - seatsNeeded / 2, highest));
+        return split(emptyBlock, owner, seatsNeeded, startSeat);
+    }
+
+    // Replaces a free block with a reservation starting at startSeat and the free seats left on either side.
+    // Returns null and leaves the tree alone if another block already has the reservation's key.
+    private SeatAssignment split(SeatAssignment emptyBlock, String owner, int seatsNeeded, int startSeat) {
+        int openSeats = emptyBlock.getSeatQuantity();
+        int openSeatStart = emptyBlock.getSeatStartIndex();
+
+        SeatAssignment reservation = new SeatAssignment(owner, seatsNeeded, startSeat);
+        if (reservation.getLongKey() != emptyBlock.getLongKey() && getValue(reservation.getLongKey()) != null) {
+            return null;
+        }
+        delete(emptyBlock);
+        insert(reservation);
+        setCurrent(reservation);            // supersedes any earlier booking, which the owner keeps
+
+        // Return the unused seats on either side of the reservation to the pool
+        int leftSeats = startSeat - openSeatStart;
+        if (leftSeats > 0) {
+            insert(new SeatAssignment(leftSeats, openSeatStart));
+        }
+        if (leftSeats + seatsNeeded < openSeats) {
+            insert(new SeatAssignment(openSeats - leftSeats - seatsNeeded, startSeat + seatsNeeded));
+        }
+        return reservation;
+    }
+
+    /**
+     * One party in a batch of reservations.
+     */
+    public static class Request {
+        private final String owner;
+        private final int seatsNeeded;
+        private final int preference;
+
+        public Request(String owner, int seatsNeeded, int preference) {
+            this.owner = owner;
+            this.seatsNeeded = seatsNeeded;
+            this.preference = preference;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public int getSeatsNeeded() {
+            return seatsNeeded;
+        }
+
+        public int getPreference() {
+            return preference;
+        }
+    }
+
+    /**
+     * Reserves seats for many parties at once, smallest party first. Each party gets the best-fitting block
+     * exactly as {@link #reserve(String, int, int)} would give it if the parties arrived in that order.
+     *
+     * The free seats left over when a block is split are kept in a small side tree until the batch ends,
+     * rather than going into the main tree and all three indexes. Group sales often fill a leftover with a
+     * later party from the same batch, and then it never touches the big trees at all. Whatever is left
+     * over is inserted once at the end.
+     *
+     * @param requests The parties to seat.
+     * @return The new reservations in the same order as the requests, with null for parties that could not
+     *         be seated.
+     */
+    public List<SeatAssignment> reserveBatch(List<Request> requests) {
+        Integer[] order = new Integer[requests.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> requests.get(i).getSeatsNeeded()));   // stable
+
+        SeatAssignment[] results = new SeatAssignment[order.length];
+        LongRedBlackTree<SeatAssignment> leftovers = new LongRedBlackTree<>();
+        for (int index : order) {
+            Request request = requests.get(index);
+            long searchKey = SeatAssignment.toKey(request.getSeatsNeeded(), 0);
+
+            // Best fit across the tree and this batch's leftovers; keys order by size, then start seat
+            SeatAssignment emptyBlock = getUnassignedBlockOverThreshold(request.getSeatsNeeded());
+            SeatAssignment leftover = leftovers.getCeilingValue(searchKey);
+            if (leftover != null && (emptyBlock == null || leftover.getLongKey() < emptyBlock.getLongKey())) {
+                emptyBlock = leftover;
+                leftovers.delete(leftover.getLongKey());
+            } else if (emptyBlock != null) {
+                delete(emptyBlock);
+            } else {
+                continue;   // no block is large enough; the result stays null
+            }
+
+            int openSeats = emptyBlock.getSeatQuantity();
+            int openSeatStart = emptyBlock.getSeatStartIndex();
+            int startSeat = startSeat(emptyBlock, request.getSeatsNeeded(), request.getPreference());
+
+            SeatAssignment reservation = new SeatAssignment(request.getOwner(), request.getSeatsNeeded(), startSeat);
+            if (!insert(reservation)) {
+                leftovers.insert(emptyBlock.getLongKey(), emptyBlock);   // the key is taken; keep the seats free
+                continue;
+            }
+            results[index] = reservation;
+
+            int leftSeats = startSeat - openSeatStart;
+            if (leftSeats > 0) {
+                SeatAssignment left = new SeatAssignment(leftSeats, openSeatStart);
+                leftovers.insert(left.getLongKey(), left);
+            }
+            if (leftSeats + request.getSeatsNeeded() < openSeats) {
+                SeatAssignment right = new SeatAssignment(openSeats - leftSeats - request.getSeatsNeeded(), startSeat + request.getSeatsNeeded());
+                leftovers.insert(right.getLongKey(), right);
+            }
+        }
+
+        // Return the unused seats to the pool
+        while (!leftovers.isEmpty()) {
+            SeatAssignment leftover = leftovers.select(0);
+            leftovers.delete(leftover.getLongKey());
+            insert(leftover);
+        }
+        for (SeatAssignment reservation : results) {
+            if (reservation != null) {
+                setCurrent(reservation);            // in request order, so a later request by the same owner wins
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void setCurrent(SeatAssignment reservation) {
+        SeatAssignment previous = owners.getCurrent(reservation.getOwner());
+        owners.setCurrent(reservation);
+        if (log != null) {
+            log.logSetCurrent(reservation);
+        }
+        if (recordingUndo && previous != null) {
+            undoSteps.add(() -> owners.setCurrent(previous));
+        }
+    }
+
+    /**
+     * Cancels an assigned block and returns its seats to the pool. The freed seats are merged with the
+     * unassigned blocks directly before and after them, so cancellations don't leave fragments behind.
+     *
+     * @param reservation The assigned block to cancel.
+     * @return The merged unassigned block that now covers the cancelled seats, or null if the
+     *         reservation is not in the tree.
+     */
+    public SeatAssignment release(SeatAssignment reservation) {
+        if (reservation.getOwner() == null || getValue(reservation.getLongKey()) != reservation) {
+            return null;
+        }
+        delete(reservation);
+
+        int start = reservation.getSeatStartIndex();
+        int end = start + reservation.getSeatQuantity();   // first seat after the block
+
+        SeatAssignment leftFree = freeByStart.getFloorValue(start - 1);   // last block starting before
+        if (leftFree != null && leftFree.getSeatStartIndex() + leftFree.getSeatQuantity() == start) {
+            delete(leftFree);
+            start = leftFree.getSeatStartIndex();
+        }
+        SeatAssignment rightFree = freeByStart.getCeilingValue(end);
+        if (rightFree != null && rightFree.getSeatStartIndex() == end) {
+            delete(rightFree);
+            end += rightFree.getSeatQuantity();
+        }
+
+        SeatAssignment merged = new SeatAssignment(end - start, start);
+        insert(merged);
+        return merged;
+    }
+
+    /**
+     * Cancels an owner's current reservation, the one made by their latest booking. Blocks from earlier
+     * bookings stay reserved.
+     *
+     * @param owner The owner whose reservation to cancel.
+     * @return The cancelled reservation, or null if the owner has no current reservation.
+     */
+    public SeatAssignment cancel(String owner) {
+        SeatAssignment reservation = owners.getCurrent(owner);
+        if (reservation != null) {
+            release(reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Cancels every block an owner holds, merging each back into the pool.
+     *
+     * @param owner The owner whose blocks to cancel.
+     * @return The cancelled blocks, oldest first; empty if the owner holds none.
+     */
+    public List<SeatAssignment> cancelAll(String owner) {
+        List<SeatAssignment> blocks = owners.getBlocks(owner);
+        for (SeatAssignment block : blocks) {
+            release(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * Finds an owner's current reservation, the one {@link #cancel(String)} would release.
+     *
+     * @param owner The owner to look up.
+     * @return The owner's current reservation, or null if the owner has none.
+     * @see #getReservations(String)
+     */
+    public SeatAssignment getReservation(String owner) {
+        return owners.getCurrent(owner);
+    }
+
+    /**
+     * @param owner The owner to look up.
+     * @return Every block the owner holds, oldest first.
+     */
+    public List<SeatAssignment> getReservations(String owner) {
+        return owners.getBlocks(owner);
+    }
+
+    /**
+     * @return The index of assigned blocks by owner.
+     */
+    public OwnerIndex getOwnerIndex() {
+        return owners;
+    }
+
+    /**
+     * Gets a live view of the unassigned blocks that start in a range of seats, in seat order. Walking it
+     * with {@link LongRedBlackTree.SubMap#cursor()} streams the blocks without building a list.
+     *
+     * @param fromSeat The first seat of the range.
+     * @param toSeat   The seat just after the range.
+     * @return The unassigned blocks starting at fromSeat up to but not including toSeat.
+     */
+    public LongRedBlackTree<SeatAssignment>.SubMap getFreeBlocksBetween(int fromSeat, int toSeat) {
+        return freeByStart.subMap(fromSeat, toSeat);
+    }
+
+    /**
+     * @return The number of unassigned blocks currently in the tree.
+     */
+    public int getFreeBlockCount() {
+        return freeBlocks.getSize();
+    }
+
+    /**
+     * @return The number of assigned blocks currently in the tree.
+     */
+    public int getReservationCount() {
+        return owners.getBlockCount();
+    }
+
+    /**
+     * Starts keeping persistent copies of the tree so that readers can take consistent snapshots without
+     * locking. Every later insert and delete also path-copies into the copies.
+     */
+    public void enableSnapshots() {
+        if (blockSnapshots != null) {
+            return;
+        }
+        blockSnapshots = new PersistentRedBlackTree<>();
+        freeSnapshots = new PersistentRedBlackTree<>();
+        copyToSnapshots();
+    }
+
+    private void copyToSnapshots() {
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            blockSnapshots.insert(cursor.getKey(), cursor.getValue());
+            if (cursor.getValue().getOwner() == null) {
+                freeSnapshots.insert(cursor.getKey(), cursor.getValue());
+            }
+        }
+    }
+
+    /**
+     * Starts recording every block inserted into or deleted from the tree, and every current reservation
+     * set, in a write-ahead log. Bulk loads are not recorded, so attach the log after loading the tree.
+     *
+     * @param log The log to record to, or null to stop recording.
+     */
+    public void setWriteAheadLog(WriteAheadLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Starts recording how to undo every block inserted or deleted and every current reservation replaced,
+     * until {@link #endChange()} or {@link #undoChange()}.
+     */
+    void beginChange() {
+        undoSteps.clear();
+        recordingUndo = true;
+    }
+
+    /**
+     * Keeps the change in progress and stops recording how to undo it.
+     */
+    void endChange() {
+        recordingUndo = false;
+        undoSteps.clear();
+    }
+
+    /**
+     * Puts the tree back as it was at {@link #beginChange()}, e.g. because the change threw partway through.
+     * The undo steps go to the write-ahead log like any other, so the caller should discard the change there.
+     */
+    void undoChange() {
+        recordingUndo = false;
+        for (int i = undoSteps.size() - 1; i >= 0; i--) {
+            undoSteps.get(i).run();
+        }
+        undoSteps.clear();
+    }
+
+    /**
+     * @return An immutable snapshot of every block, or null if snapshots are not enabled.
+     */
+    public PersistentRedBlackTree.Snapshot<SeatAssignment> getSnapshot() {
+        return blockSnapshots == null ? null : blockSnapshots.snapshot();
+    }
+
+    /**
+     * @return An immutable snapshot of the unassigned blocks keyed by size, or null if snapshots are not enabled.
+     */
+    public PersistentRedBlackTree.Snapshot<SeatAssignment> getFreeSnapshot() {
+        return freeSnapshots == null ? null : freeSnapshots.snapshot();
+    }
+
+    public Node getRoot() {
+        return this.root;
+    }
+}
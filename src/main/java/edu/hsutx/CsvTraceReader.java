@@ -0,0 +1,284 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams a CSV reservation trace ("a,name,seats,preference" or "d,name" per line) straight out of a
+ * memory-mapped file. Characters are decoded from the mapped bytes one at a time and names are interned
+ * from a reusable buffer, so no String or array is created per line.
+ *
+ * A byte order mark selects UTF-16LE, UTF-16BE or UTF-8; a file without one is read as UTF-8. Large files
+ * are mapped a window at a time, and a line that runs off the end of a window is read again from the
+ * start of the next one.
+ */
+public class CsvTraceReader implements TraceReader {
+    static final int DEFAULT_WINDOW_SIZE = 1 << 26;    // 64 MB of the file mapped at a time
+
+    private static final int UTF_8 = 0;
+    private static final int UTF_16 = 1;
+
+    // parseLine results
+    private static final int LINE = 0;
+    private static final int END = 1;
+    private static final int NEED_MORE = 2;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private final NameTable names;
+    private final int encoding;
+    private final ByteOrder byteOrder;
+
+    private MappedByteBuffer window;
+    private long windowStart;       // file offset of the window's first byte
+    private int position;           // read position inside the window
+    private int pendingLowSurrogate = -1;
+    private char[] nameChars = new char[64];
+    private int lastUnit;           // the character that ended the last number
+    private long lineNumber;
+
+    public CsvTraceReader(String filePath) throws IOException {
+        this(Path.of(filePath), new NameTable(), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param filePath The trace to read.
+     * @param names    The table to intern customer names into, which may be shared with other readers.
+     */
+    public CsvTraceReader(String filePath, NameTable names) throws IOException {
+        this(Path.of(filePath), names, DEFAULT_WINDOW_SIZE);
+    }
+
+    CsvTraceReader(Path path, NameTable names, int windowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        this.names = names;
+        map(0);
+
+        int first = byteAt(0);
+        int second = byteAt(1);
+        if (first == 0xFF && second == 0xFE) {
+            encoding = UTF_16;
+            byteOrder = ByteOrder.LITTLE_ENDIAN;
+            position = 2;
+        } else if (first == 0xFE && second == 0xFF) {
+            encoding = UTF_16;
+            byteOrder = ByteOrder.BIG_ENDIAN;
+            position = 2;
+        } else {
+            encoding = UTF_8;
+            byteOrder = ByteOrder.BIG_ENDIAN;
+            position = first == 0xEF && second == 0xBB && byteAt(2) == 0xBF ? 3 : 0;
+        }
+        window.order(byteOrder);
+    }
+
+    @Override
+    public NameTable getNames() {
+        return names;
+    }
+
+    @Override
+    public boolean next(ReservationCommand command) throws IOException {
+        while (true) {
+            int lineStart = position;
+            int result = parseLine(command);
+            if (result == LINE) {
+                lineNumber++;
+                return true;
+            }
+            if (result == END) {
+                return false;
+            }
+            // The line runs past the end of the window; map the file again from the start of the line
+            if (lineStart == 0) {
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than the " + windowSize + " byte read window");
+            }
+            map(windowStart + lineStart);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int parseLine(ReservationCommand command) throws IOException {
+        pendingLowSurrogate = -1;
+        int c = nextUnit();
+        while (c == '\r' || c == '\n') {
+            c = nextUnit();     // skip line endings and blank lines
+        }
+        if (c < 0) {
+            return atEndOfFile() ? END : NEED_MORE;
+        }
+        char op = (char) c;
+        if (op != ReservationCommand.RESERVE && op != ReservationCommand.CANCEL) {
+            throw malformed("unknown command '" + op + "'");
+        }
+        c = nextUnit();
+        if (c < 0 && !atEndOfFile()) {
+            return NEED_MORE;
+        }
+        if (c != ',') {
+            throw malformed("expected ',' after the command");
+        }
+
+        int length = 0;
+        while ((c = nextUnit()) >= 0 && c != ',' && c != '\r' && c != '\n') {
+            if (length == nameChars.length) {
+                char[] bigger = new char[length * 2];
+                System.arraycopy(nameChars, 0, bigger, 0, length);
+                nameChars = bigger;
+            }
+            nameChars[length++] = (char) c;
+        }
+        if (c < 0 && !atEndOfFile()) {
+            return NEED_MORE;
+        }
+
+        if (op == ReservationCommand.CANCEL) {
+            if (c == ',') {
+                throw malformed("a cancellation has only a name");
+            }
+            command.seats = 0;
+            command.preference = 0;
+        } else {
+            if (c != ',') {
+                throw malformed("a reservation needs a seat count and a preference");
+            }
+            int seats = parseNumber();
+            if (seats < 0) {
+                return NEED_MORE;
+            }
+            if (lastUnit != ',') {
+                throw malformed("a reservation needs a preference");
+            }
+            int preference = parseNumber();
+            if (preference < 0) {
+                return NEED_MORE;
+            }
+            if (lastUnit == ',') {
+                throw malformed("too many fields");
+            }
+            command.seats = seats;
+            command.preference = preference;
+        }
+        command.op = op;
+        command.nameId = names.intern(nameChars, length);
+        return LINE;
+    }
+
+    /**
+     * Reads a non-negative decimal number and the character after it into lastUnit.
+     *
+     * @return The number, or -1 if the window ran out before the number ended.
+     */
+    private int parseNumber() throws IOException {
+        int value = 0;
+        int digits = 0;
+        int c;
+        while ((c = nextUnit()) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (++digits > 9) {
+                throw malformed("number too long");
+            }
+        }
+        if (c < 0 && !atEndOfFile()) {
+            return -1;
+        }
+        if (digits == 0) {
+            throw malformed("expected a number");
+        }
+        lastUnit = c;
+        return value;
+    }
+
+    /**
+     * @return The next UTF-16 code unit, or -1 if the window has no complete character left.
+     */
+    private int nextUnit() throws IOException {
+        if (pendingLowSurrogate >= 0) {
+            int low = pendingLowSurrogate;
+            pendingLowSurrogate = -1;
+            return low;
+        }
+        int limit = window.limit();
+        if (encoding == UTF_16) {
+            if (position + 2 > limit) {
+                return -1;
+            }
+            char c = window.getChar(position);
+            position += 2;
+            return c;
+        }
+
+        if (position >= limit) {
+            return -1;
+        }
+        int b = window.get(position) & 0xFF;
+        if (b < 0x80) {
+            position++;
+            return b;   // ASCII fast path
+        }
+        int extra;
+        int codePoint;
+        if (b >= 0xF8) {
+            throw malformed("invalid UTF-8 byte");
+        } else if (b >= 0xF0) {
+            extra = 3;
+            codePoint = b & 0x07;
+        } else if (b >= 0xE0) {
+            extra = 2;
+            codePoint = b & 0x0F;
+        } else if (b >= 0xC0) {
+            extra = 1;
+            codePoint = b & 0x1F;
+        } else {
+            throw malformed("invalid UTF-8 byte");
+        }
+        if (position + extra >= limit) {
+            return -1;
+        }
+        for (int i = 1; i <= extra; i++) {
+            int next = window.get(position + i) & 0xFF;
+            if ((next & 0xC0) != 0x80) {
+                throw malformed("invalid UTF-8 sequence");
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        position += extra + 1;
+        if (codePoint > 0xFFFF) {
+            pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        return codePoint;
+    }
+
+    private boolean atEndOfFile() {
+        return windowStart + window.limit() >= fileSize;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+        if (byteOrder != null) {
+            window.order(byteOrder);
+        }
+        position = 0;
+    }
+
+    private int byteAt(int index) {
+        return index < window.limit() ? window.get(index) & 0xFF : -1;
+    }
+
+    private IOException malformed(String message) {
+        return new IOException("Malformed trace at line " + (lineNumber + 1) + ": " + message);
+    }
+}
@@ -0,0 +1,181 @@
+package edu.hsutx;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Saves copies of an image to a file on a background thread, at most once per interval, so encoding and
+ * disk writes never hold up the thread that draws the image.
+ *
+ * {@link #offer(int[])} copies the pixels into a spare buffer and hands the copy to the writer thread; the
+ * caller carries on drawing into its own pixels while the copy is written. At most one frame waits for the
+ * writer. If the writer is still busy when the next frame arrives, the waiting frame is dropped and the new
+ * one takes its place, so a slow disk costs frames rather than memory or latency, and the newest frame is
+ * always the one written next.
+ *
+ * Each frame is written to a temporary file and renamed into place, so the file is never half-written.
+ */
+public class ImageExporter implements Closeable {
+    /**
+     * The file formats an exporter can write.
+     */
+    public enum Format {
+        PNG,
+        JPEG,
+        /** The pixels as big-endian 0xRRGGBB ints, row by row, with no header: fast to write, easy to diff. */
+        RAW
+    }
+
+    private final Path path;
+    private final Format format;
+    private final long intervalNanos;
+    private final int width;
+    private final int height;
+    private final ExecutorService writer;
+    private final AtomicReference<BufferedImage> waiting = new AtomicReference<>();    // the next frame to write
+    private final AtomicReference<BufferedImage> spare = new AtomicReference<>();      // a written frame to reuse
+    private long lastOffer;
+    private boolean offered;
+    private volatile long written;
+    private volatile long dropped;
+    private volatile IOException failure;
+
+    /**
+     * @param path     The file to write.
+     * @param format   The format to write it in.
+     * @param interval The least time between two frames; zero offers every frame.
+     * @param width    The width of the image in pixels.
+     * @param height   The height of the image in pixels.
+     */
+    public ImageExporter(Path path, Format format, Duration interval, int width, int height) {
+        this.path = path;
+        this.format = format;
+        this.intervalNanos = interval.toNanos();
+        this.width = width;
+        this.height = height;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "image-exporter");
+            thread.setDaemon(true);     // don't keep the app alive just to save a picture
+            return thread;
+        });
+    }
+
+    /**
+     * Offers the image as it is now. If an interval has passed since the last frame, the pixels are copied
+     * and queued for writing; otherwise the call does nothing. Call it from one thread only, the one that
+     * draws the image.
+     *
+     * @param pixels The image's pixels as 0xRRGGBB ints, row by row.
+     * @return true if the frame was queued, false if it was too soon after the last one.
+     */
+    public boolean offer(int[] pixels) {
+        long now = System.nanoTime();
+        if (offered && now - lastOffer < intervalNanos) {
+            return false;
+        }
+        offered = true;
+        lastOffer = now;
+
+        BufferedImage frame = spare.getAndSet(null);
+        if (frame == null) {
+            frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        System.arraycopy(pixels, 0, pixels(frame), 0, width * height);
+        BufferedImage replaced = waiting.getAndSet(frame);
+        if (replaced == null) {
+            writer.execute(this::writeWaiting);
+        } else {
+            spare.set(replaced);    // the writer never saw it, so it can be drawn into again
+            dropped++;  // the writer is behind; only offer() writes this field
+        }
+        return true;
+    }
+
+    private void writeWaiting() {
+        BufferedImage frame = waiting.getAndSet(null);
+        if (frame == null) {
+            return;
+        }
+        try {
+            write(frame);
+            written++;  // only the writer thread writes this field
+        } catch (IOException e) {
+            failure = e;
+        }
+        spare.set(frame);
+    }
+
+    private void write(BufferedImage frame) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (format == Format.RAW) {
+            ByteBuffer bytes = ByteBuffer.allocate(width * height * 4);
+            bytes.asIntBuffer().put(pixels(frame));
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        } else {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                if (!ImageIO.write(frame, format == Format.PNG ? "png" : "jpg", out)) {
+                    throw new IOException("No image writer for " + format);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int[] pixels(BufferedImage frame) {
+        return ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * @return The number of frames written to the file.
+     */
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * @return The number of frames dropped because the writer was still busy with an earlier one.
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * @return The error from the last frame that could not be written, or null.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Writes the frame still waiting, if any, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples (in nanoseconds) for one kind of operation and reports percentiles.
+ * Samples are kept in a growable primitive array so recording does not allocate per sample.
+ */
+public class LatencyStats {
+    private long[] samples = new long[1024];
+    private int count;
+    private long totalNanos;
+    private boolean sorted = true;
+
+    /**
+     * Records one latency sample.
+     *
+     * @param nanos The duration of the operation in nanoseconds.
+     */
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        totalNanos += nanos;
+        sorted = false;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / (double) count;
+    }
+
+    /**
+     * Gets the latency at the given percentile using the nearest-rank method.
+     *
+     * @param percentile A percentile between 0 and 100.
+     * @return The latency in nanoseconds, or 0 if no samples were recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%8d ops, mean %8.0f ns, p50 %8d ns, p99 %8d ns",
+                count, getMeanNanos(), getPercentile(50), getPercentile(99));
+    }
+}
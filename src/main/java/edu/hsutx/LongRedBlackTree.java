@@ -0,0 +1,1187 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A Red-Black Tree specialized for primitive long keys.
+ * It has the same structure and rules as {@link RedBlackTree}, but compares keys as longs so that
+ * lookups never allocate or compare Strings.
+ *
+ * Every leaf position points at one shared black NIL node per tree instead of a leaf object per child slot.
+ *
+ * Each node also carries aggregates over its subtree: the node count, and the largest and total
+ * {@link #weightOf weight} of its values. They give O(log n) rank and select, O(1) totals and searches that
+ * skip any subtree whose largest weight is too small. Subclasses choose what a value weighs.
+ *
+ * The values can be walked in key order with a {@link Cursor}, an iterator or a {@link SubMap} view of a key
+ * range, all stepping along parent pointers without a stack, as in {@link RedBlackTree}.
+ */
+public class LongRedBlackTree<E> implements Iterable<E> {
+    Node root;
+    int size;
+    // The one black NIL leaf shared by every node in this tree
+    final Node nil = new Node(null);
+
+    protected class Node {
+        public long key;
+        public E value;
+        public Node left;
+        public Node right;
+        public Node parent;
+        public boolean isRed; // true = red, false = black
+        public int subtreeSize;     // nodes in this subtree, 0 for NIL
+        public long maxWeight;      // largest weight in this subtree, 0 for NIL
+        public long totalWeight;    // sum of the weights in this subtree, 0 for NIL
+
+        /**
+         * Method to create the NIL leaf node, which has no key
+         */
+        public Node(Node parent) {
+            this.value = null;
+            this.parent = parent;
+            this.left = null;
+            this.right = null;
+            this.isRed = false;     //is a leaf, so is always black
+        }
+
+        public Node(long key, E value, Node parent, boolean color) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+            this.left = nil;
+            this.right = nil;
+            this.isRed = color;
+            this.subtreeSize = 1;
+            this.maxWeight = weightOf(value);
+            this.totalWeight = maxWeight;
+        }
+
+        /**
+         * @return true if this is a leaf (NIL) node that holds no key
+         */
+        public boolean isLeaf() {
+            return this == nil;
+        }
+
+        public int getDepth() {
+            if (isLeaf()) {
+                return 0;
+            }
+            int depth = 1;  //start including the node being checked
+            Node current = this.parent;
+            while (current != null) {
+                depth++;
+                current = current.parent;
+            }
+            return depth;
+        }
+
+        public int getBlackDepth() {
+            if (isLeaf()) {
+                return 0;
+            }
+            int depth = 1;  //start including the node being checked
+            Node current = this.parent;
+            while (current != null) {
+                if (!current.isRed) {
+                    depth++;
+                }
+                current = current.parent;
+            }
+            return depth;
+        }
+
+        public boolean isRightChild() {
+            return this.parent != null && this.parent.right == this;
+        }
+
+        public Node getNearNephew() {
+            if (this.parent == null) {
+                return null;
+            }
+
+            if (this.isRightChild()) {
+                return this.parent.left.right;
+            } else {
+                return this.parent.right.left;
+            }
+        }
+
+        public Node getFarNephew() {
+            if (this.parent == null) {
+                return null;
+            }
+
+            if (this.isRightChild()) {
+                return this.parent.left.left;
+            } else {
+                return this.parent.right.right;
+            }
+        }
+    }
+
+    public LongRedBlackTree() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Gives the weight of a value for the subtree aggregates. Weights must not be negative.
+     * The default weighs every value 0, which leaves only the subtree sizes meaningful.
+     *
+     * @param value The value stored in a node.
+     * @return The weight of the value.
+     */
+    protected long weightOf(E value) {
+        return 0;
+    }
+
+    // Recomputes a node's aggregates from its own value and its children's aggregates
+    private void pull(Node node) {
+        long weight = weightOf(node.value);
+        node.subtreeSize = 1 + node.left.subtreeSize + node.right.subtreeSize;
+        node.maxWeight = Math.max(weight, Math.max(node.left.maxWeight, node.right.maxWeight));
+        node.totalWeight = weight + node.left.totalWeight + node.right.totalWeight;
+    }
+
+    // Recomputes the aggregates on the path from node up to the root
+    private void pullToRoot(Node node) {
+        while (node != null && node != nil) {
+            pull(node);
+            node = node.parent;
+        }
+    }
+
+    /**
+     * Inserts a key with a value. A key that is already present keeps its old value.
+     *
+     * @param key   The key to insert.
+     * @param value The value to store with the key.
+     * @return true if the key was added, false if it was already present.
+     */
+    public boolean insert(long key, E value) {
+        if (root == null) {
+            root = new Node(key, value, null, false);   //empty case, root must be black
+            size++;
+            return true;
+        }
+        // Walk down to the NIL slot where the key belongs, remembering its parent
+        Node parent = null;
+        Node current = root;
+        while (current != nil) {
+            if (key == current.key) {
+                return false;   //a node with this key already exists
+            }
+            parent = current;
+            current = key < current.key ? current.left : current.right;
+        }
+
+        Node newNode = new Node(key, value, parent, true);
+        if (key < parent.key) {
+            parent.left = newNode;
+        } else {
+            parent.right = newNode;
+        }
+        size++;
+        pullToRoot(parent);
+        fixInsertion(newNode);
+        return true;
+    }
+
+    /**
+     * Builds the tree in O(n) from values that are already sorted by key, instead of inserting them one at a
+     * time. The tree is built perfectly balanced from the middle of each range outwards; every node on the
+     * deepest level is red and every other node is black, which keeps all black heights equal.
+     *
+     * @param values The values to load, in strictly increasing key order.
+     * @param keyOf  Gives the key for each value.
+     * @throws IllegalStateException    if the tree is not empty.
+     * @throws IllegalArgumentException if the keys are not strictly increasing.
+     */
+    public void bulkLoad(Iterator<? extends E> values, ToLongFunction<? super E> keyOf) {
+        List<E> loaded = new ArrayList<>();
+        values.forEachRemaining(loaded::add);
+        bulkLoad(loaded, keyOf);
+    }
+
+    /**
+     * Builds the tree from a sorted list, whose size is known up front so nothing has to be copied first.
+     *
+     * @see #bulkLoad(Iterator, ToLongFunction)
+     */
+    public void bulkLoad(List<? extends E> values, ToLongFunction<? super E> keyOf) {
+        if (root != null) {
+            throw new IllegalStateException("bulkLoad needs an empty tree");
+        }
+        for (int i = 1; i < values.size(); i++) {
+            long key = keyOf.applyAsLong(values.get(i));
+            long previous = keyOf.applyAsLong(values.get(i - 1));
+            if (key <= previous) {
+                throw new IllegalArgumentException("Keys must be strictly increasing: " + key + " after " + previous);
+            }
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        int redDepth = 31 - Integer.numberOfLeadingZeros(values.size());   // depth of the deepest level
+        root = build(values, keyOf, 0, values.size() - 1, null, 0, redDepth);
+        size = values.size();
+    }
+
+    private Node build(List<? extends E> values, ToLongFunction<? super E> keyOf, int low, int high, Node parent,
+                       int depth, int redDepth) {
+        if (low > high) {
+            return nil;
+        }
+        int middle = (low + high) >>> 1;
+        E value = values.get(middle);
+        Node node = new Node(keyOf.applyAsLong(value), value, parent, depth == redDepth && depth > 0);
+        node.left = build(values, keyOf, low, middle - 1, node, depth + 1, redDepth);
+        node.right = build(values, keyOf, middle + 1, high, node, depth + 1, redDepth);
+        pull(node);
+        return node;
+    }
+
+    public void delete(long key) {
+        Node delNode = find(key);
+        if (delNode.isLeaf()) {
+            return;
+        }
+
+        Node removed = delNode;     // the node that actually leaves its position in the tree
+        boolean removedWasRed = removed.isRed;
+        Node x;                     // the node that moves into the removed node's position (may be nil)
+
+        if (delNode.left.isLeaf()) {
+            // no children, or only a right child
+            x = delNode.right;
+            transplant(delNode, delNode.right);
+        } else if (delNode.right.isLeaf()) {
+            // only a left child
+            x = delNode.left;
+            transplant(delNode, delNode.left);
+        } else {
+            // two children: the in-order successor takes the deleted node's place
+            removed = delNode.right;
+            while (!removed.left.isLeaf()) {
+                removed = removed.left;
+            }
+            removedWasRed = removed.isRed;
+            x = removed.right;
+            if (removed.parent == delNode) {
+                x.parent = removed;     // set even when x is nil so that fixDeletion can climb from it
+            } else {
+                transplant(removed, removed.right);
+                removed.right = delNode.right;
+                removed.right.parent = removed;
+            }
+            transplant(delNode, removed);
+            removed.left = delNode.left;
+            removed.left.parent = removed;
+            removed.isRed = delNode.isRed;
+        }
+        size--;
+        pullToRoot(x.parent);   // every node whose subtree lost a node lies on this path
+
+        if (!removedWasRed) {
+            fixDeletion(x);
+        }
+        if (root == nil) {
+            root = null;    // the last real node was removed
+        }
+        nil.parent = null;  // don't keep the removed node reachable through the sentinel
+    }
+
+    /**
+     * Replaces the subtree rooted at oldNode with the subtree rooted at newNode.
+     */
+    private void transplant(Node oldNode, Node newNode) {
+        Node parent = oldNode.parent;
+        if (parent == null) {
+            root = newNode;
+        } else if (parent.right == oldNode) {
+            parent.right = newNode;
+        } else {
+            parent.left = newNode;
+        }
+        newNode.parent = parent;
+    }
+
+    /**
+     * Restores the red-black rules after a red node is inserted, as a loop that climbs two levels per
+     * recoloring. Which side the parent hangs on is read once per step, and each side has its own copy of
+     * the cases, so no node is asked which child it is.
+     */
+    private void fixInsertion(Node node) {
+        Node parent;
+        while ((parent = node.parent) != null && parent.isRed) {
+            Node grandparent = parent.parent;   // a red parent is never the root
+            if (parent == grandparent.left) {
+                Node uncle = grandparent.right;
+                if (uncle.isRed) {
+                    parent.isRed = false;
+                    uncle.isRed = false;
+                    grandparent.isRed = true;
+                    node = grandparent;
+                    continue;
+                }
+                if (node == parent.right) {
+                    rotateLeft(parent);     // straighten the zig-zag so both lean left
+                    parent = node;
+                }
+                parent.isRed = false;
+                grandparent.isRed = true;
+                rotateRight(grandparent);
+            } else {
+                Node uncle = grandparent.left;
+                if (uncle.isRed) {
+                    parent.isRed = false;
+                    uncle.isRed = false;
+                    grandparent.isRed = true;
+                    node = grandparent;
+                    continue;
+                }
+                if (node == parent.left) {
+                    rotateRight(parent);    // straighten the zig-zag so both lean right
+                    parent = node;
+                }
+                parent.isRed = false;
+                grandparent.isRed = true;
+                rotateLeft(grandparent);
+            }
+            break;      // the rotation ended the conflict
+        }
+        root.isRed = false;
+    }
+
+    /**
+     * Removes the extra black that x carries after a black node was deleted, as a loop that pushes it up
+     * the tree or absorbs it with at most three rotations. The sibling and both nephews are read once per
+     * step and kept in locals, with one copy of the cases for each side.
+     */
+    private void fixDeletion(Node x) {
+        while (x != root && !x.isRed) {
+            Node parent = x.parent;
+            if (x == parent.left) {
+                Node sibling = parent.right;
+                if (sibling.isRed) {
+                    // make the sibling black so that one of the cases below applies
+                    sibling.isRed = false;
+                    parent.isRed = true;
+                    rotateLeft(parent);
+                    sibling = parent.right;
+                }
+                Node nearNephew = sibling.left;
+                Node farNephew = sibling.right;
+                if (!nearNephew.isRed && !farNephew.isRed) {
+                    sibling.isRed = true;
+                    x = parent;
+                    continue;
+                }
+                if (!farNephew.isRed) {
+                    // near nephew is red; rotate it into the sibling's place
+                    nearNephew.isRed = false;
+                    sibling.isRed = true;
+                    rotateRight(sibling);
+                    farNephew = sibling;
+                    sibling = nearNephew;
+                }
+                sibling.isRed = parent.isRed;
+                parent.isRed = false;
+                farNephew.isRed = false;
+                rotateLeft(parent);
+            } else {
+                Node sibling = parent.left;
+                if (sibling.isRed) {
+                    sibling.isRed = false;
+                    parent.isRed = true;
+                    rotateRight(parent);
+                    sibling = parent.left;
+                }
+                Node nearNephew = sibling.right;
+                Node farNephew = sibling.left;
+                if (!nearNephew.isRed && !farNephew.isRed) {
+                    sibling.isRed = true;
+                    x = parent;
+                    continue;
+                }
+                if (!farNephew.isRed) {
+                    nearNephew.isRed = false;
+                    sibling.isRed = true;
+                    rotateLeft(sibling);
+                    farNephew = sibling;
+                    sibling = nearNephew;
+                }
+                sibling.isRed = parent.isRed;
+                parent.isRed = false;
+                farNephew.isRed = false;
+                rotateRight(parent);
+            }
+            x = root;   // the rotation absorbed the extra black
+        }
+        x.isRed = false;
+    }
+
+    /**
+     * Method to rotate a segment of the tree left.
+     *
+     * @param node The node moving down; its right child takes its place
+     */
+    private void rotateLeft(Node node) {
+        Node child = node.right;
+        Node parent = node.parent;
+
+        node.right = child.left;
+        if (child.left != nil) {
+            child.left.parent = node;   // nil's parent may be in use by fixDeletion
+        }
+        child.parent = parent;
+        if (parent == null) {
+            root = child;
+        } else if (parent.left == node) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        child.left = node;
+        node.parent = child;
+        pull(node);
+        pull(child);
+    }
+
+    /**
+     * Method to rotate a segment of the tree right.
+     *
+     * @param node The node moving down; its left child takes its place
+     */
+    private void rotateRight(Node node) {
+        Node child = node.left;
+        Node parent = node.parent;
+
+        node.left = child.right;
+        if (child.right != nil) {
+            child.right.parent = node;  // nil's parent may be in use by fixDeletion
+        }
+        child.parent = parent;
+        if (parent == null) {
+            root = child;
+        } else if (parent.right == node) {
+            parent.right = child;
+        } else {
+            parent.left = child;
+        }
+        child.right = node;
+        node.parent = child;
+        pull(node);
+        pull(child);
+    }
+
+    Node find(long key) {
+        // If the key exists in the tree, return the Node where it is located
+        // Otherwise, return the nil node
+        Node current = root;
+        if (current == null) {
+            return nil;
+        }
+        while (current != nil && current.key != key) {
+            if (key < current.key) {
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Finds the node with the smallest key greater than or equal to the given key.
+     *
+     * @param key The lower bound to search from.
+     * @return The ceiling node, or null if every key in the tree is smaller.
+     */
+    Node ceiling(long key) {
+        Node current = root;
+        Node best = null;
+        while (current != null && current != nil) {
+            if (key == current.key) {
+                return current;
+            }
+            if (key < current.key) {
+                best = current;     // candidate; look for a smaller one on the left
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the node with the largest key less than or equal to the given key.
+     *
+     * @param key The upper bound to search from.
+     * @return The floor node, or null if every key in the tree is larger.
+     */
+    Node floor(long key) {
+        Node current = root;
+        Node best = null;
+        while (current != null && current != nil) {
+            if (key == current.key) {
+                return current;
+            }
+            if (key > current.key) {
+                best = current;     // candidate; look for a larger one on the right
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the value stored under the largest key less than or equal to the given key.
+     *
+     * @param key The upper bound to search from.
+     * @return The floor value, or null if every key in the tree is larger.
+     */
+    public E getFloorValue(long key) {
+        Node node = floor(key);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Gets the value stored under the smallest key greater than or equal to the given key.
+     *
+     * @param key The lower bound to search from.
+     * @return The ceiling value, or null if every key in the tree is smaller.
+     */
+    public E getCeilingValue(long key) {
+        Node node = ceiling(key);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Counts the keys smaller than the given key in O(log n).
+     *
+     * @param key The key to rank; it need not be in the tree.
+     * @return The number of keys in the tree that are less than key.
+     */
+    public int rank(long key) {
+        int rank = 0;
+        Node current = root;
+        while (current != null && current != nil) {
+            if (key <= current.key) {
+                current = current.left;
+            } else {
+                rank += current.left.subtreeSize + 1;
+                current = current.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Gets the value with the given position in key order in O(log n).
+     *
+     * @param index The 0-based position, where 0 is the smallest key.
+     * @return The value at that position, or null if the index is out of range.
+     */
+    public E select(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        Node current = root;
+        while (true) {
+            int leftSize = current.left.subtreeSize;
+            if (index == leftSize) {
+                return current.value;
+            }
+            if (index < leftSize) {
+                current = current.left;
+            } else {
+                index -= leftSize + 1;
+                current = current.right;
+            }
+        }
+    }
+
+    /**
+     * Finds the node with the smallest key whose value weighs at least the given weight. Subtrees whose
+     * largest weight is too small are skipped, so this takes O(log n).
+     *
+     * @param weight The minimum weight.
+     * @return The first node in key order that is heavy enough, or null if there is none.
+     */
+    Node firstWithWeightAtLeast(long weight) {
+        return root == null ? null : firstWithWeightAtLeast(root, weight);
+    }
+
+    // The first heavy enough node in the subtree, or null
+    private Node firstWithWeightAtLeast(Node current, long weight) {
+        if (current.maxWeight < weight) {
+            return null;
+        }
+        while (true) {
+            if (current.left != nil && current.left.maxWeight >= weight) {
+                current = current.left;
+            } else if (weightOf(current.value) >= weight) {
+                return current;
+            } else {
+                current = current.right;    // the answer must be on the right, since this subtree holds one
+            }
+        }
+    }
+
+    // The last heavy enough node in the subtree, or null
+    private Node lastWithWeightAtLeast(Node current, long weight) {
+        if (current.maxWeight < weight) {
+            return null;
+        }
+        while (true) {
+            if (current.right != nil && current.right.maxWeight >= weight) {
+                current = current.right;
+            } else if (weightOf(current.value) >= weight) {
+                return current;
+            } else {
+                current = current.left;
+            }
+        }
+    }
+
+    /**
+     * Finds the node with the smallest key at or after fromKey whose value weighs at least the given weight,
+     * in O(log n). On the way down to fromKey, every node at or after it is followed in key order by itself
+     * and its right subtree, and deeper nodes come first; so the deepest such node whose own weight or right
+     * subtree is heavy enough leads to the answer.
+     *
+     * @param fromKey The smallest key to consider.
+     * @param weight  The minimum weight.
+     * @return The first node from fromKey on that is heavy enough, or null if there is none.
+     */
+    Node firstWithWeightAtLeast(long fromKey, long weight) {
+        Node found = null;
+        Node current = root;
+        while (current != null && current != nil) {
+            if (current.key >= fromKey) {
+                if (weightOf(current.value) >= weight || current.right.maxWeight >= weight) {
+                    found = current;
+                }
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        if (found == null || weightOf(found.value) >= weight) {
+            return found;
+        }
+        return firstWithWeightAtLeast(found.right, weight);
+    }
+
+    /**
+     * Finds the node with the largest key at or before toKey whose value weighs at least the given weight,
+     * in O(log n); the mirror image of {@link #firstWithWeightAtLeast(long, long)}.
+     *
+     * @param toKey  The largest key to consider.
+     * @param weight The minimum weight.
+     * @return The last node up to toKey that is heavy enough, or null if there is none.
+     */
+    Node lastWithWeightAtLeast(long toKey, long weight) {
+        Node found = null;
+        Node current = root;
+        while (current != null && current != nil) {
+            if (current.key <= toKey) {
+                if (weightOf(current.value) >= weight || current.left.maxWeight >= weight) {
+                    found = current;
+                }
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        if (found == null || weightOf(found.value) >= weight) {
+            return found;
+        }
+        return lastWithWeightAtLeast(found.left, weight);
+    }
+
+    /**
+     * Gets the value with the smallest key whose weight is at least the given weight.
+     *
+     * @param weight The minimum weight.
+     * @return The value, or null if no value weighs that much.
+     */
+    public E getFirstValueWithWeightAtLeast(long weight) {
+        Node node = firstWithWeightAtLeast(weight);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Gets the value with the smallest key at or after fromKey whose weight is at least the given weight.
+     *
+     * @param fromKey The smallest key to consider.
+     * @param weight  The minimum weight.
+     * @return The value, or null if no value from fromKey on weighs that much.
+     */
+    public E getFirstValueWithWeightAtLeast(long fromKey, long weight) {
+        Node node = firstWithWeightAtLeast(fromKey, weight);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * Gets the value with the largest key at or before toKey whose weight is at least the given weight.
+     *
+     * @param toKey  The largest key to consider.
+     * @param weight The minimum weight.
+     * @return The value, or null if no value up to toKey weighs that much.
+     */
+    public E getLastValueWithWeightAtLeast(long toKey, long weight) {
+        Node node = lastWithWeightAtLeast(toKey, weight);
+        if (node == null) {
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * @return The sum of all weights in the tree, in O(1).
+     */
+    public long getTotalWeight() {
+        return root == null ? 0 : root.totalWeight;
+    }
+
+    /**
+     * @return The largest weight in the tree, in O(1).
+     */
+    public long getMaxWeight() {
+        return root == null ? 0 : root.maxWeight;
+    }
+
+    // The node with the smallest key, or null if the tree is empty
+    Node first() {
+        if (root == null) {
+            return null;
+        }
+        Node current = root;
+        while (current.left != nil) {
+            current = current.left;
+        }
+        return current;
+    }
+
+    /**
+     * Finds the next node in key order by following child and parent pointers, in amortized O(1).
+     *
+     * @param node A node in the tree.
+     * @return The node with the next larger key, or null if node has the largest.
+     */
+    Node successor(Node node) {
+        if (node.right != nil) {
+            node = node.right;
+            while (node.left != nil) {
+                node = node.left;
+            }
+            return node;
+        }
+        Node parent = node.parent;
+        while (parent != null && node == parent.right) {    // climb until we come up from a left child
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    /**
+     * A position that walks the values in key order, optionally within a key range. It moves along parent
+     * pointers and allocates nothing, and it can be reset to a new range and used again. The tree must not
+     * change while a cursor is walking it.
+     *
+     * @see RedBlackTree.Cursor
+     */
+    public class Cursor {
+        private Node current;   // the node the cursor is on, or null before the first next() and at the end
+        private Node upcoming;  // the node the next call to next() moves to, or null if there is none
+        private long toKey;     // the exclusive upper bound, if bounded
+        private boolean bounded;
+
+        /**
+         * Points the cursor just before the smallest key.
+         *
+         * @return This cursor.
+         */
+        public Cursor reset() {
+            current = null;
+            upcoming = first();
+            bounded = false;
+            return this;
+        }
+
+        /**
+         * Points the cursor just before the first key at or after fromKey.
+         *
+         * @param fromKey The inclusive lower bound.
+         * @param toKey   The exclusive upper bound.
+         * @return This cursor.
+         */
+        public Cursor reset(long fromKey, long toKey) {
+            current = null;
+            upcoming = ceiling(fromKey);
+            this.toKey = toKey;
+            bounded = true;
+            return this;
+        }
+
+        /**
+         * Moves to the next key in the range.
+         *
+         * @return true if the cursor is on a key, false if the range is used up.
+         */
+        public boolean next() {
+            current = upcoming;
+            if (current != null && bounded && current.key >= toKey) {
+                current = null;
+            }
+            upcoming = current == null ? null : successor(current);
+            return current != null;
+        }
+
+        /**
+         * @return The key the cursor is on.
+         * @throws NoSuchElementException if the cursor is not on a key.
+         */
+        public long getKey() {
+            return on().key;
+        }
+
+        /**
+         * @return The value the cursor is on.
+         * @throws NoSuchElementException if the cursor is not on a key.
+         */
+        public E getValue() {
+            return on().value;
+        }
+
+        private Node on() {
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+            return current;
+        }
+    }
+
+    /**
+     * @return A cursor over every value, positioned before the first.
+     */
+    public Cursor cursor() {
+        return new Cursor().reset();
+    }
+
+    /**
+     * @param fromKey The inclusive lower bound.
+     * @param toKey   The exclusive upper bound.
+     * @return A cursor over the values with keys in the range, positioned before the first.
+     */
+    public Cursor cursor(long fromKey, long toKey) {
+        return new Cursor().reset(fromKey, toKey);
+    }
+
+    /**
+     * @return An iterator over the values in key order. It does not support removal, and the tree must not
+     *         change while it is in use.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return iterator(cursor());
+    }
+
+    private Iterator<E> iterator(Cursor cursor) {
+        return new Iterator<E>() {
+            private boolean ready = cursor.next();
+
+            @Override
+            public boolean hasNext() {
+                return ready;
+            }
+
+            @Override
+            public E next() {
+                E value = cursor.getValue();    // throws at the end
+                ready = cursor.next();
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Walks the values in key order and splits its share of them at subtree boundaries, so parallel streams
+     * can hand whole subtrees to other threads. The first split is at the root; after that a right-hand part
+     * splits at the right child of its first node and a left-hand part at the left child of its fence. Each
+     * part knows the rank of its first node and of its fence, and the subtree sizes give the rank of every
+     * split node in O(1), so every part's size is exact.
+     *
+     * The tree must not change while a spliterator or a stream built on one is in use.
+     */
+    class NodeSpliterator implements Spliterator<E> {
+        private Node current;   // the next node to visit, or null when done
+        private final Node fence;   // the first node not to visit, or null for the end of the tree
+        private int side;       // 0 for the whole tree, 1 for a right-hand part, -1 for a left-hand part
+        private int low;        // the rank of current
+        private final int high; // the rank of fence
+
+        NodeSpliterator(Node current, Node fence, int side, int low, int high) {
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            Node split;
+            int rank;
+            if (current == null || high - low < 2) {
+                return null;
+            } else if (side == 0) {
+                split = root;
+                rank = root.left.subtreeSize;
+            } else if (side > 0) {
+                split = current.right;
+                rank = split == nil ? low : low + 1 + split.left.subtreeSize;
+            } else {
+                split = fence.left;
+                rank = split == nil ? high : high - 1 - split.right.subtreeSize;
+            }
+            if (rank <= low || rank >= high) {
+                return null;    // the subtree boundary is not inside this part any more
+            }
+            NodeSpliterator prefix = new NodeSpliterator(current, split, -1, low, rank);
+            current = split;
+            low = rank;
+            side = 1;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (low >= high) {
+                return false;
+            }
+            Node node = current;
+            current = successor(node);
+            low++;
+            action.accept(node.value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            Node node = current;
+            for (int remaining = high - low; remaining > 0; remaining--) {
+                action.accept(node.value);
+                node = successor(node);
+            }
+            current = node;
+            low = high;
+        }
+
+        @Override
+        public long estimateSize() {
+            return high - low;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * @return A spliterator over the values in key order that splits at subtree boundaries with exact sizes.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new NodeSpliterator(first(), null, 0, 0, size);
+    }
+
+    /**
+     * @return A sequential stream of the values in key order.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Streams the values on the common fork-join pool. The tree must not change until the stream is done.
+     *
+     * @return A parallel stream of the values in key order.
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * A live view of the values whose keys lie in a range. The view holds only its bounds, so it sees every
+     * change made to the tree, and each walk starts with one O(log n) search for the lower bound.
+     */
+    public class SubMap implements Iterable<E> {
+        private final long fromKey;
+        private final long toKey;
+
+        private SubMap(long fromKey, long toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        /**
+         * @return A cursor over the range, positioned before its first value.
+         */
+        public Cursor cursor() {
+            return new Cursor().reset(fromKey, toKey);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return LongRedBlackTree.this.iterator(cursor());
+        }
+
+        /**
+         * @return The value with the smallest key in the range, or null if the range is empty.
+         */
+        public E getFirstValue() {
+            Node node = ceiling(fromKey);
+            return node == null || node.key >= toKey ? null : node.value;
+        }
+
+        /**
+         * @return The value with the largest key in the range, or null if the range is empty.
+         */
+        public E getLastValue() {
+            Node node = toKey == Long.MIN_VALUE ? null : floor(toKey - 1);
+            return node == null || node.key < fromKey ? null : node.value;
+        }
+
+        /**
+         * @return true if no key lies in the range.
+         */
+        public boolean isEmpty() {
+            return getFirstValue() == null;
+        }
+
+        /**
+         * @return The number of keys in the range, in O(log n) from the subtree sizes.
+         */
+        public int count() {
+            return fromKey >= toKey ? 0 : rank(toKey) - rank(fromKey);
+        }
+    }
+
+    /**
+     * Gets a view of the values whose keys lie in a range.
+     *
+     * @param fromKey The inclusive lower bound.
+     * @param toKey   The exclusive upper bound.
+     * @return The view.
+     */
+    public SubMap subMap(long fromKey, long toKey) {
+        return new SubMap(fromKey, toKey);
+    }
+
+    public E getValue(long key) {
+        // If the key does not exist, return null
+        Node getNode = find(key);
+        if (getNode.isLeaf()) {
+            return null;
+        }
+        return getNode.value;
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // returns the depth of the node with key, or 0 if it doesn't exist
+    public int getDepth(long key) {
+        return find(key).getDepth();
+    }
+
+    // Helper method to check the color of a node
+    private boolean isRed(Node node) {
+        return node != null && node.isRed; // Red is true
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean validateRedBlackTree() {
+        // Rule 2: Root must be black
+        if (root == null) {
+            return true; // An empty tree is trivially a valid Red-Black Tree
+        }
+        if (isRed(root)) {
+            return false; // Root must be black
+        }
+
+        // Walk the whole tree along parent pointers, keeping the black count of the path from the root
+        int expectedBlackCount = -1;
+        int blackCount = 0;
+        Node previous = null;
+        Node node = root;
+        while (node != null) {
+            Node next;
+            if (previous == node.parent) {
+                // First visit. Rule 4: If a node is red, its children must be black
+                if (isRed(node) && (isRed(node.left) || isRed(node.right))) {
+                    return false; // Red node cannot have red children
+                }
+                if (!node.isRed) {
+                    blackCount++;
+                }
+                // Rule 3 and 5: every NIL leaf is black and ends a path with the same black count
+                if (node.left == nil || node.right == nil) {
+                    if (expectedBlackCount == -1) {
+                        expectedBlackCount = blackCount + 1;
+                    } else if (blackCount + 1 != expectedBlackCount) {
+                        return false;
+                    }
+                }
+                next = node.left != nil ? node.left : node.right != nil ? node.right : node.parent;
+            } else if (previous == node.left && node.right != nil) {
+                next = node.right;
+            } else {
+                next = node.parent;
+            }
+
+            if (next != node.parent && next.parent != node) {
+                return false;   // a broken parent pointer would send the walk astray
+            }
+            if (next == node.parent && !node.isRed) {
+                blackCount--;   // leaving the node for good
+            }
+            previous = node;
+            node = next;
+        }
+        return true;
+    }
+}
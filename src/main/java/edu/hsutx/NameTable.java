@@ -0,0 +1,180 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns customer names as small int ids. A name is looked up straight from the characters a parser
+ * has just read, so a String is only created the first time each name is seen.
+ */
+public class NameTable {
+    private String[] names = new String[1024];      // id -> name
+    private int[] hashes = new int[1024];           // id -> String.hashCode of the name
+    private int[] slots = new int[2048];            // open-addressed hash table of id + 1, 0 when empty
+    private int count;
+
+    /**
+     * Gets the id of a name given as characters, adding the name if it is new.
+     *
+     * @param chars  The buffer holding the name.
+     * @param length The number of characters of the name at the start of the buffer.
+     * @return The id of the name.
+     */
+    public int intern(char[] chars, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];    // the same hash as String.hashCode
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(new String(chars, 0, length), hash, slot);
+            }
+            if (hashes[id] == hash && matches(names[id], chars, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a name, adding the name if it is new.
+     *
+     * @param name The name to look up.
+     * @return The id of the name.
+     */
+    public int intern(String name) {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(name, hash, slot);
+            }
+            if (hashes[id] == hash && names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Gets the id of a name without adding it.
+     *
+     * @param name The name to look up.
+     * @return The id of the name, or -1 if it has not been interned.
+     */
+    public int find(String name) {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0 || hashes[id] == hash && names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @param id An id returned by intern.
+     * @return The name with that id.
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return The number of distinct names.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes every name in id order, each as its length in bytes (varint) and then the name in UTF-8, the
+     * name table that the binary trace and checkpoint files end with.
+     *
+     * @param channel Where the names go, at its current position.
+     * @param buffer  The buffer to write through; it is flushed to the channel as it fills and at the end.
+     * @throws IOException if the channel cannot be written.
+     */
+    void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        for (int id = 0; id < count; id++) {
+            byte[] name = names[id].getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < name.length + 5) {
+                flush(channel, buffer);
+            }
+            int length = name.length;
+            while ((length & ~0x7F) != 0) {
+                buffer.put((byte) ((length & 0x7F) | 0x80));
+                length >>>= 7;
+            }
+            buffer.put((byte) length);
+            if (name.length > buffer.remaining()) {
+                flush(channel, buffer);     // the length goes out before a name longer than the whole buffer
+                ByteBuffer wrapped = ByteBuffer.wrap(name);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+            } else {
+                buffer.put(name);
+            }
+        }
+        flush(channel, buffer);
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count * 2);
+            hashes = Arrays.copyOf(hashes, count * 2);
+        }
+        int id = count++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (count * 2 > slots.length) {
+            rehash();   // keep the table at most half full
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Spreads the bits of String.hashCode, whose low bits are weak for short names
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, char[] chars, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
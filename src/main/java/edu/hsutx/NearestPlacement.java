@@ -0,0 +1,38 @@
+package edu.hsutx;
+
+/**
+ * A placement strategy that reads the preference as where in the venue the party wants to sit, from the
+ * first seat at 0 to the last at 100, and seats the party in the free block nearest that seat.
+ *
+ * @see CowboySeatTree#reserveNear(String, int, int)
+ */
+public class NearestPlacement extends TreePlacement {
+    private final int seats;
+
+    /**
+     * @param seats The number of seats in the venue, all free to begin with.
+     */
+    public NearestPlacement(int seats) {
+        super(CowboySeatTree.Fit.BEST, seats);
+        this.seats = seats;
+    }
+
+    /**
+     * @param seats      The number of seats in the venue.
+     * @param preference Where in the venue to sit, as a percentage; out of range values are clamped.
+     * @return The seat the preference points at.
+     */
+    public static int targetSeat(int seats, int preference) {
+        return 1 + (int) ((seats - 1L) * Math.max(0, Math.min(preference, 100)) / 100);
+    }
+
+    @Override
+    public String getName() {
+        return "nearest";
+    }
+
+    @Override
+    public SeatAssignment reserve(String owner, int seatsNeeded, int preference) {
+        return getTree().reserveNear(owner, seatsNeeded, targetSeat(seats, preference));
+    }
+}
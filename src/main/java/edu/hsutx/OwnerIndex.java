@@ -0,0 +1,156 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every assigned block in a CowboySeatTree, grouped by owner. Owner names are interned as small int ids,
+ * so each owner's blocks sit in an array indexed by id and finding them is one hash lookup, with no
+ * String keys built per block.
+ *
+ * An owner can hold several blocks: booking again leaves the earlier block in place. The newest booking
+ * is the owner's current reservation, the one a cancellation by name releases. An older block is never
+ * current again, even once the newer one is cancelled.
+ *
+ * Not thread-safe; {@link ConcurrentReservationService} guards it with the tree.
+ */
+public class OwnerIndex {
+    private static final SeatAssignment[] NO_BLOCKS = new SeatAssignment[0];
+
+    private final NameTable names = new NameTable();
+    private SeatAssignment[][] blocks = new SeatAssignment[1024][];    // id -> the owner's blocks, oldest first
+    private int[] counts = new int[1024];                               // id -> the number of those in use
+    private SeatAssignment[] current = new SeatAssignment[1024];       // id -> current reservation, or null
+    private int blockCount;
+
+    /**
+     * Adds an assigned block under its owner.
+     *
+     * @param block The block; its owner must not be null.
+     * @return The owner's id.
+     */
+    public int add(SeatAssignment block) {
+        int id = names.intern(block.getOwner());
+        if (id == blocks.length) {
+            blocks = Arrays.copyOf(blocks, id * 2);
+            counts = Arrays.copyOf(counts, id * 2);
+            current = Arrays.copyOf(current, id * 2);
+        }
+        SeatAssignment[] owned = blocks[id];
+        if (owned == null || counts[id] == owned.length) {
+            blocks[id] = owned = owned == null ? new SeatAssignment[2] : Arrays.copyOf(owned, owned.length * 2);
+        }
+        owned[counts[id]++] = block;
+        blockCount++;
+        return id;
+    }
+
+    /**
+     * Removes an assigned block. If it was its owner's current reservation, the owner no longer has one.
+     *
+     * @param block The block, which must be the same object that was added.
+     * @return true if the block was in the index.
+     */
+    public boolean remove(SeatAssignment block) {
+        int id = names.find(block.getOwner());
+        if (id < 0) {
+            return false;
+        }
+        SeatAssignment[] owned = blocks[id];
+        for (int i = counts[id] - 1; i >= 0; i--) {     // the newest block is the one usually cancelled
+            if (owned[i] == block) {
+                System.arraycopy(owned, i + 1, owned, i, counts[id] - i - 1);
+                owned[--counts[id]] = null;
+                blockCount--;
+                if (current[id] == block) {
+                    current[id] = null;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes a block its owner's current reservation. Does nothing if the owner has never held a block.
+     *
+     * @param reservation A block already in the index.
+     */
+    public void setCurrent(SeatAssignment reservation) {
+        int id = names.find(reservation.getOwner());
+        if (id >= 0) {
+            current[id] = reservation;
+        }
+    }
+
+    /**
+     * @param owner An owner's name.
+     * @return The owner's id, or -1 if the owner has never held a block.
+     */
+    public int getId(String owner) {
+        return names.find(owner);
+    }
+
+    /**
+     * @param id An owner's id.
+     * @return The owner's name.
+     */
+    public String getOwner(int id) {
+        return names.getName(id);
+    }
+
+    /**
+     * @param owner An owner's name.
+     * @return The owner's current reservation, or null if the owner has none.
+     */
+    public SeatAssignment getCurrent(String owner) {
+        int id = names.find(owner);
+        return id < 0 ? null : current[id];
+    }
+
+    /**
+     * @param owner An owner's name.
+     * @return Every block the owner holds, oldest first.
+     */
+    public List<SeatAssignment> getBlocks(String owner) {
+        int id = names.find(owner);
+        return id < 0 ? List.of() : getBlocks(id);
+    }
+
+    /**
+     * @param id An owner's id.
+     * @return Every block the owner holds, oldest first.
+     */
+    public List<SeatAssignment> getBlocks(int id) {
+        SeatAssignment[] owned = blocks[id];
+        return List.of(owned == null ? NO_BLOCKS : Arrays.copyOf(owned, counts[id]));
+    }
+
+    /**
+     * @return Every owner's current reservation.
+     */
+    public List<SeatAssignment> getCurrentReservations() {
+        List<SeatAssignment> reservations = new ArrayList<>();
+        for (int id = 0; id < names.size(); id++) {
+            if (current[id] != null) {
+                reservations.add(current[id]);
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * @return The number of assigned blocks.
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * @return The number of owners who have ever held a block, which bounds the ids.
+     */
+    public int getOwnerCount() {
+        return names.size();
+    }
+}
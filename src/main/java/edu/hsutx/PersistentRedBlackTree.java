@@ -0,0 +1,357 @@
+package edu.hsutx;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A persistent (immutable) Red-Black Tree with long keys.
+ * Nodes are never modified: insert and delete copy the path from the root to the change and share every
+ * other node with the previous version, then publish the new root through an AtomicReference.
+ *
+ * A reader takes a {@link Snapshot} and can search it for as long as it likes without locks; writers
+ * that come later never disturb it. Concurrent writers retry with compare-and-set until their change lands
+ * on the latest version.
+ *
+ * Insertion follows Okasaki's balance cases and deletion follows Kahrs' functional deletion. Null is the
+ * black leaf.
+ */
+public class PersistentRedBlackTree<E> {
+    private final AtomicReference<Node<E>> root = new AtomicReference<>();
+
+    public static final class Node<E> {
+        public final long key;
+        public final E value;
+        public final Node<E> left;
+        public final Node<E> right;
+        public final boolean isRed;
+        public final int size;      // number of nodes in this subtree
+        public final int height;    // number of levels in this subtree, so drawing it needs no traversal
+
+        Node(boolean isRed, Node<E> left, long key, E value, Node<E> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.isRed = isRed;
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+            this.height = 1 + Math.max(heightOf(left), heightOf(right));
+        }
+    }
+
+    /**
+     * An immutable version of the tree.
+     */
+    public static final class Snapshot<E> {
+        private final Node<E> root;
+
+        Snapshot(Node<E> root) {
+            this.root = root;
+        }
+
+        public Node<E> getRoot() {
+            return root;
+        }
+
+        public int getSize() {
+            return sizeOf(root);
+        }
+
+        public boolean isEmpty() {
+            return root == null;
+        }
+
+        public E getValue(long key) {
+            Node<E> current = root;
+            while (current != null) {
+                if (key == current.key) {
+                    return current.value;
+                }
+                current = key < current.key ? current.left : current.right;
+            }
+            return null;
+        }
+
+        /**
+         * Gets the value stored under the smallest key greater than or equal to the given key.
+         *
+         * @param key The lower bound to search from.
+         * @return The ceiling value, or null if every key in the snapshot is smaller.
+         */
+        public E getCeilingValue(long key) {
+            Node<E> current = root;
+            E best = null;
+            while (current != null) {
+                if (key == current.key) {
+                    return current.value;
+                }
+                if (key < current.key) {
+                    best = current.value;
+                    current = current.left;
+                } else {
+                    current = current.right;
+                }
+            }
+            return best;
+        }
+
+        public boolean validateRedBlackTree() {
+            if (root == null) {
+                return true;
+            }
+            if (root.isRed) {
+                return false;
+            }
+
+            // Depth-first with an explicit stack, so a degenerate tree cannot overflow the call stack
+            Node<?>[] stack = new Node<?>[64];
+            int[] blackAbove = new int[64];     // black nodes on the path above each stacked node
+            int top = 0;
+            stack[top++] = root;
+            int expectedBlackCount = -1;
+            while (top > 0) {
+                Node<?> node = stack[--top];
+                int blackCount = blackAbove[top] + (node.isRed ? 0 : 1);
+                if (node.isRed && (isRed(node.left) || isRed(node.right))) {
+                    return false;
+                }
+                for (int side = 0; side < 2; side++) {
+                    Node<?> child = side == 0 ? node.left : node.right;
+                    if (child == null) {
+                        // Every null leaf ends a path with the same black count
+                        if (expectedBlackCount == -1) {
+                            expectedBlackCount = blackCount + 1;
+                        } else if (blackCount + 1 != expectedBlackCount) {
+                            return false;
+                        }
+                    } else {
+                        if (top == stack.length) {
+                            stack = Arrays.copyOf(stack, top * 2);
+                            blackAbove = Arrays.copyOf(blackAbove, top * 2);
+                        }
+                        stack[top] = child;
+                        blackAbove[top++] = blackCount;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return The current version of the tree. It never changes, no matter what writers do afterwards.
+     */
+    public Snapshot<E> snapshot() {
+        return new Snapshot<>(root.get());
+    }
+
+    public E getValue(long key) {
+        return snapshot().getValue(key);
+    }
+
+    public int getSize() {
+        return sizeOf(root.get());
+    }
+
+    public boolean isEmpty() {
+        return root.get() == null;
+    }
+
+    /**
+     * Inserts a key and value. Does nothing if the key is already present.
+     */
+    public void insert(long key, E value) {
+        Node<E> current;
+        Node<E> updated;
+        do {
+            current = root.get();
+            if (contains(current, key)) {
+                return;     //a node with this key already exists
+            }
+            updated = blacken(insert(current, key, value));
+        } while (!root.compareAndSet(current, updated));
+    }
+
+    /**
+     * Deletes a key. Does nothing if the key is not present.
+     */
+    public void delete(long key) {
+        Node<E> current;
+        Node<E> updated;
+        do {
+            current = root.get();
+            if (!contains(current, key)) {
+                return;     // deletion assumes the key is present
+            }
+            updated = blacken(delete(current, key));
+        } while (!root.compareAndSet(current, updated));
+    }
+
+    /* ------------------ Path-copying helpers ------------------ */
+
+    static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    static int heightOf(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static boolean isRed(Node<?> node) {
+        return node != null && node.isRed;
+    }
+
+    private static boolean contains(Node<?> node, long key) {
+        while (node != null) {
+            if (key == node.key) {
+                return true;
+            }
+            node = key < node.key ? node.left : node.right;
+        }
+        return false;
+    }
+
+    private static <E> Node<E> red(Node<E> left, Node<E> node, Node<E> right) {
+        return new Node<>(true, left, node.key, node.value, right);
+    }
+
+    private static <E> Node<E> black(Node<E> left, Node<E> node, Node<E> right) {
+        return new Node<>(false, left, node.key, node.value, right);
+    }
+
+    private static <E> Node<E> blacken(Node<E> node) {
+        if (node == null || !node.isRed) {
+            return node;
+        }
+        return black(node.left, node, node.right);
+    }
+
+    private static <E> Node<E> redden(Node<E> node) {
+        return red(node.left, node, node.right);
+    }
+
+    private static <E> Node<E> insert(Node<E> node, long key, E value) {
+        if (node == null) {
+            return new Node<>(true, null, key, value, null);
+        }
+        if (key == node.key) {
+            return node;
+        }
+        if (node.isRed) {
+            if (key < node.key) {
+                return red(insert(node.left, key, value), node, node.right);
+            }
+            return red(node.left, node, insert(node.right, key, value));
+        }
+        if (key < node.key) {
+            return balance(insert(node.left, key, value), node, node.right);
+        }
+        return balance(node.left, node, insert(node.right, key, value));
+    }
+
+    /**
+     * Builds a black node from left, middle and right, fixing any red-red pair directly beneath it.
+     */
+    private static <E> Node<E> balance(Node<E> left, Node<E> middle, Node<E> right) {
+        if (isRed(left) && isRed(right)) {
+            return red(blacken(left), middle, blacken(right));
+        }
+        if (isRed(left)) {
+            if (isRed(left.left)) {
+                return red(blacken(left.left), left, black(left.right, middle, right));
+            }
+            if (isRed(left.right)) {
+                Node<E> lr = left.right;
+                return red(black(left.left, left, lr.left), lr, black(lr.right, middle, right));
+            }
+        }
+        if (isRed(right)) {
+            if (isRed(right.right)) {
+                return red(black(left, middle, right.left), right, blacken(right.right));
+            }
+            if (isRed(right.left)) {
+                Node<E> rl = right.left;
+                return red(black(left, middle, rl.left), rl, black(rl.right, right, right.right));
+            }
+        }
+        return black(left, middle, right);
+    }
+
+    private static <E> Node<E> delete(Node<E> node, long key) {
+        if (node == null) {
+            return null;
+        }
+        if (key < node.key) {
+            if (node.left != null && !node.left.isRed) {
+                return balanceLeft(delete(node.left, key), node, node.right);
+            }
+            return red(delete(node.left, key), node, node.right);
+        }
+        if (key > node.key) {
+            if (node.right != null && !node.right.isRed) {
+                return balanceRight(node.left, node, delete(node.right, key));
+            }
+            return red(node.left, node, delete(node.right, key));
+        }
+        return append(node.left, node.right);
+    }
+
+    /**
+     * Rebuilds a node whose left subtree lost one black level.
+     */
+    private static <E> Node<E> balanceLeft(Node<E> left, Node<E> middle, Node<E> right) {
+        if (isRed(left)) {
+            return red(blacken(left), middle, right);
+        }
+        if (right != null && !right.isRed) {
+            return balance(left, middle, redden(right));
+        }
+        // right is red with a black left child
+        Node<E> rl = right.left;
+        return red(black(left, middle, rl.left), rl, balance(rl.right, right, redden(right.right)));
+    }
+
+    /**
+     * Rebuilds a node whose right subtree lost one black level.
+     */
+    private static <E> Node<E> balanceRight(Node<E> left, Node<E> middle, Node<E> right) {
+        if (isRed(right)) {
+            return red(left, middle, blacken(right));
+        }
+        if (left != null && !left.isRed) {
+            return balance(redden(left), middle, right);
+        }
+        // left is red with a black right child
+        Node<E> lr = left.right;
+        return red(balance(redden(left.left), left, lr.left), lr, black(lr.right, middle, right));
+    }
+
+    /**
+     * Joins two subtrees of equal black height whose keys are all ordered left before right.
+     */
+    private static <E> Node<E> append(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.isRed && right.isRed) {
+            Node<E> inner = append(left.right, right.left);
+            if (isRed(inner)) {
+                return red(red(left.left, left, inner.left), inner, red(inner.right, right, right.right));
+            }
+            return red(left.left, left, red(inner, right, right.right));
+        }
+        if (!left.isRed && !right.isRed) {
+            Node<E> inner = append(left.right, right.left);
+            if (isRed(inner)) {
+                return red(black(left.left, left, inner.left), inner, black(inner.right, right, right.right));
+            }
+            return balanceLeft(left.left, left, black(inner, right, right.right));
+        }
+        if (right.isRed) {
+            return red(append(left, right.left), right, right.right);
+        }
+        return red(left.left, left, append(left.right, right));
+    }
+}
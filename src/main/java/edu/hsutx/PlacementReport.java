@@ -0,0 +1,190 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Replays a reservation trace against each placement strategy and reports how fast it ran and how badly it
+ * fragmented the venue, to pick the strategy that keeps large blocks available longest.
+ *
+ * The trace is read into memory first, so the throughput is the strategy's alone. A cancellation releases
+ * the customer's latest reservation, as in {@link ReservationEngine}. After every command the largest free
+ * block is sampled; the report gives its average over the trace and the command after which it first fell
+ * below each of a few party sizes. Every party is also measured against the seat its preference points at
+ * when read as a position in the venue, as {@link NearestPlacement} reads it, to show how far from where
+ * they asked to sit each strategy puts people.
+ *
+ * Run with {@code gradle placementReport} or {@code gradle placementReport -Ptrace=path/to/trace.csv}.
+ */
+public class PlacementReport {
+    private static final int[] THRESHOLDS = {100_000, 10_000, 1_000};
+    private static final int TIMED_RUNS = 20;
+    // Each run needs a fresh strategy with the whole venue free
+    static final List<IntFunction<PlacementStrategy>> STRATEGIES = List.of(PlacementStrategy::bestFit,
+            PlacementStrategy::firstFit, PlacementStrategy::worstFit, PlacementStrategy::nearest, PlacementStrategy::buddy);
+
+    /**
+     * A trace held in memory.
+     */
+    static class Trace {
+        final char[] ops;
+        final int[] nameIds;
+        final int[] seats;
+        final int[] preferences;
+        final NameTable names;
+
+        Trace(TraceReader reader) throws IOException {
+            List<int[]> commands = new ArrayList<>();
+            ReservationCommand command = new ReservationCommand();
+            while (reader.next(command)) {
+                commands.add(new int[] {command.getOp(), command.getNameId(), command.getSeats(), command.getPreference()});
+            }
+            int n = commands.size();
+            ops = new char[n];
+            nameIds = new int[n];
+            seats = new int[n];
+            preferences = new int[n];
+            for (int i = 0; i < n; i++) {
+                int[] c = commands.get(i);
+                ops[i] = (char) c[0];
+                nameIds[i] = c[1];
+                seats[i] = c[2];
+                preferences[i] = c[3];
+            }
+            names = reader.getNames();
+        }
+
+        int size() {
+            return ops.length;
+        }
+    }
+
+    /**
+     * What one strategy did with the trace.
+     */
+    static class Result {
+        final String name;
+        long elapsedNanos;
+        int failedReservations;
+        int failedCancellations;
+        long freeSeats;
+        int freeBlocks;
+        int largestFreeBlock;
+        long wastedSeats;
+        double meanLargestFreeBlock;
+        long totalDistance;     // seats between each party and the seat it asked for
+        int seated;
+        final int[] belowThreshold = new int[THRESHOLDS.length];   // command index, or -1 if never
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return The mean number of seats between a seated party and the seat it asked for.
+         */
+        double getMeanDistance() {
+            return seated == 0 ? 0 : (double) totalDistance / seated;
+        }
+
+        /**
+         * @return The share of free seats outside the largest free block: 0 when they are all in one block.
+         */
+        double getFragmentation() {
+            return freeSeats == 0 ? 0 : 1 - (double) largestFreeBlock / freeSeats;
+        }
+    }
+
+    /**
+     * Replays the trace once against a strategy, sampling the largest free block after every command.
+     *
+     * @param strategy A strategy with the whole venue free.
+     * @param seats    The number of seats in the venue.
+     * @param trace    The trace to replay.
+     * @return The outcome, with the time taken including the sampling.
+     */
+    static Result replay(PlacementStrategy strategy, int seats, Trace trace) {
+        Result result = new Result(strategy.getName());
+        Arrays.fill(result.belowThreshold, -1);
+        SeatAssignment[] current = new SeatAssignment[trace.names.size()];
+        double largestSum = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < trace.size(); i++) {
+            int id = trace.nameIds[i];
+            if (trace.ops[i] == ReservationCommand.RESERVE) {
+                SeatAssignment reservation = strategy.reserve(trace.names.getName(id), trace.seats[i], trace.preferences[i]);
+                if (reservation == null) {
+                    result.failedReservations++;
+                } else {
+                    current[id] = reservation;
+                    result.seated++;
+                    result.totalDistance += distance(reservation, NearestPlacement.targetSeat(seats, trace.preferences[i]));
+                }
+            } else if (current[id] == null || strategy.release(current[id]) == null) {
+                result.failedCancellations++;
+            } else {
+                current[id] = null;
+            }
+
+            int largest = strategy.getLargestFreeBlock();
+            largestSum += largest;
+            for (int t = 0; t < THRESHOLDS.length; t++) {
+                if (result.belowThreshold[t] < 0 && largest < THRESHOLDS[t]) {
+                    result.belowThreshold[t] = i + 1;
+                }
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+
+        result.freeSeats = strategy.getFreeSeatCount();
+        result.freeBlocks = strategy.getFreeBlockCount();
+        result.largestFreeBlock = strategy.getLargestFreeBlock();
+        result.meanLargestFreeBlock = trace.size() == 0 ? 0 : largestSum / trace.size();
+        if (strategy instanceof BuddyPlacement) {
+            result.wastedSeats = ((BuddyPlacement) strategy).getWastedSeatCount();
+        }
+        return result;
+    }
+
+    // Seats between a reservation and a target seat, 0 if the reservation holds it
+    static int distance(SeatAssignment reservation, int targetSeat) {
+        int first = reservation.getSeatStartIndex();
+        int last = first + reservation.getSeatQuantity() - 1;
+        return targetSeat < first ? first - targetSeat : Math.max(0, targetSeat - last);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : "data/reservations.csv";
+        Trace trace;
+        try (TraceReader reader = TraceReader.open(filePath)) {
+            trace = new Trace(reader);
+        }
+
+        System.out.printf("%d commands from %s on %d seats; best of %d runs%n%n", trace.size(), filePath,
+                ReservationEngine.VENUE_SEATS, TIMED_RUNS);
+        System.out.printf("%-10s %11s %7s %7s %9s %8s %9s %7s %8s %10s %9s  %s%n", "strategy", "ops/sec", "failed",
+                "unheld", "free", "blocks", "largest", "frag", "wasted", "mean lgst", "distance", "largest first below 100k/10k/1k at command");
+        for (IntFunction<PlacementStrategy> strategy : STRATEGIES) {
+            Result best = null;
+            for (int run = 0; run < TIMED_RUNS; run++) {
+                Result result = replay(strategy.apply(ReservationEngine.VENUE_SEATS), ReservationEngine.VENUE_SEATS, trace);
+                if (best == null || result.elapsedNanos < best.elapsedNanos) {
+                    best = result;
+                }
+            }
+            System.out.printf("%-10s %11.0f %7d %7d %9d %8d %9d %6.1f%% %8d %10.0f %9.0f  %s%n", best.name,
+                    trace.size() / (best.elapsedNanos / 1e9), best.failedReservations, best.failedCancellations,
+                    best.freeSeats, best.freeBlocks, best.largestFreeBlock, 100 * best.getFragmentation(),
+                    best.wastedSeats, best.meanLargestFreeBlock, best.getMeanDistance(), Arrays.toString(best.belowThreshold));
+        }
+        System.out.println();
+        System.out.println("failed: reservations no free block could hold; unheld: cancellations with nothing to release;");
+        System.out.println("frag: free seats outside the largest free block; wasted: seats reserved but not used (buddy only);");
+        System.out.println("distance: mean seats between a party and the seat its preference points at;");
+        System.out.println("-1: the largest free block never fell that low.");
+    }
+}
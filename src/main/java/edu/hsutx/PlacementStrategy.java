@@ -0,0 +1,88 @@
+package edu.hsutx;
+
+/**
+ * A way of choosing which seats a party gets. Each strategy keeps its own index of the free seats, so
+ * strategies can be compared on the same trace; see {@link PlacementReport}.
+ *
+ * Seats are numbered from 1, as in the venue.
+ */
+public interface PlacementStrategy {
+
+    /**
+     * @param seats The number of seats in the venue.
+     * @return A strategy that splits the smallest free block that fits, as the venue always has.
+     */
+    static PlacementStrategy bestFit(int seats) {
+        return new TreePlacement(CowboySeatTree.Fit.BEST, seats);
+    }
+
+    /**
+     * @param seats The number of seats in the venue.
+     * @return A strategy that splits the free block with the lowest seat numbers that fits.
+     */
+    static PlacementStrategy firstFit(int seats) {
+        return new TreePlacement(CowboySeatTree.Fit.FIRST, seats);
+    }
+
+    /**
+     * @param seats The number of seats in the venue.
+     * @return A strategy that splits the largest free block.
+     */
+    static PlacementStrategy worstFit(int seats) {
+        return new TreePlacement(CowboySeatTree.Fit.WORST, seats);
+    }
+
+    /**
+     * @param seats The number of seats in the venue.
+     * @return A strategy that seats each party in the free block nearest the part of the venue it asked for.
+     */
+    static PlacementStrategy nearest(int seats) {
+        return new NearestPlacement(seats);
+    }
+
+    /**
+     * @param seats The number of seats in the venue.
+     * @return A binary buddy allocator over the venue.
+     */
+    static PlacementStrategy buddy(int seats) {
+        return new BuddyPlacement(seats);
+    }
+
+    /**
+     * @return A short name for reports.
+     */
+    String getName();
+
+    /**
+     * Reserves seats for a party.
+     *
+     * @param owner       The owner of the new reservation.
+     * @param seatsNeeded The number of seats to reserve.
+     * @param preference  Where in the chosen free block to place the seats, as a percentage.
+     * @return The new reservation, or null if the party could not be seated.
+     */
+    SeatAssignment reserve(String owner, int seatsNeeded, int preference);
+
+    /**
+     * Returns a reservation's seats to the pool, merging them with free neighbors as the strategy allows.
+     *
+     * @param reservation A reservation made by this strategy.
+     * @return The free block that now covers the released seats, or null if the reservation is not held.
+     */
+    SeatAssignment release(SeatAssignment reservation);
+
+    /**
+     * @return The number of seats in free blocks.
+     */
+    long getFreeSeatCount();
+
+    /**
+     * @return The number of free blocks.
+     */
+    int getFreeBlockCount();
+
+    /**
+     * @return The largest party a reservation could seat right now.
+     */
+    int getLargestFreeBlock();
+}
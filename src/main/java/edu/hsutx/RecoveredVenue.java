@@ -0,0 +1,114 @@
+package edu.hsutx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The state of a venue as it is read back after a restart: the blocks from a checkpoint, with the changes
+ * from the write-ahead log segments written after it folded on top.
+ *
+ * The checkpoint's blocks are kept as the sorted list they were read in, and the log's changes as a small
+ * set of inserted and deleted blocks beside them, so a large checkpoint is never copied into a hash map.
+ * {@link #getBlocks()} merges the two in key order, ready for a bulk load.
+ */
+class RecoveredVenue {
+    private List<SeatAssignment> checkpointBlocks = List.of();     // in key order
+    private final Map<Long, SeatAssignment> inserted = new HashMap<>();    // packed key -> block
+    private final Set<Long> deleted = new HashSet<>();                     // checkpoint blocks deleted since
+    private final Map<String, Long> owners = new HashMap<>();   // customer -> key of current reservation
+    private long changes;
+
+    /**
+     * Starts from a checkpoint's blocks. Must be called before any change is applied.
+     *
+     * @param blocks  Every block in the checkpoint, in key order.
+     * @param current Each customer's current reservation among them.
+     */
+    void loadCheckpoint(List<SeatAssignment> blocks, Map<String, Long> current) {
+        checkpointBlocks = blocks;
+        owners.putAll(current);
+    }
+
+    void insert(SeatAssignment block) {
+        inserted.put(block.getLongKey(), block);
+    }
+
+    void setCurrent(String owner, long key) {
+        owners.put(owner, key);     // supersedes the customer's last reservation, which they keep
+    }
+
+    void delete(String owner, long key) {
+        if (inserted.remove(key) == null) {
+            deleted.add(key);
+        }
+        if (owner != null) {
+            owners.remove(owner, key);
+        }
+    }
+
+    void endChange() {
+        changes++;
+    }
+
+    /**
+     * @return The number of log changes applied on top of the checkpoint.
+     */
+    long getChangeCount() {
+        return changes;
+    }
+
+    /**
+     * @return Every block, in packed key order.
+     */
+    List<SeatAssignment> getBlocks() {
+        if (inserted.isEmpty() && deleted.isEmpty()) {
+            return checkpointBlocks;
+        }
+        long[] keys = new long[inserted.size()];
+        int count = 0;
+        for (long key : inserted.keySet()) {
+            keys[count++] = key;
+        }
+        Arrays.sort(keys);      // a primitive sort is several times faster than sorting the blocks
+
+        List<SeatAssignment> blocks = new ArrayList<>(checkpointBlocks.size() + keys.length);
+        int next = 0;
+        for (SeatAssignment block : checkpointBlocks) {
+            long key = block.getLongKey();
+            while (next < keys.length && keys[next] < key) {
+                blocks.add(inserted.get(keys[next++]));
+            }
+            if (next < keys.length && keys[next] == key) {
+                blocks.add(inserted.get(keys[next++]));     // deleted and then inserted again
+            } else if (!deleted.contains(key)) {
+                blocks.add(block);
+            }
+        }
+        while (next < keys.length) {
+            blocks.add(inserted.get(keys[next++]));
+        }
+        return blocks;
+    }
+
+    /**
+     * @param blocks The blocks returned by {@link #getBlocks()}.
+     * @return Each customer's current reservation.
+     */
+    List<SeatAssignment> getCurrentReservations(List<SeatAssignment> blocks) {
+        List<SeatAssignment> current = new ArrayList<>(owners.size());
+        for (SeatAssignment block : blocks) {
+            if (block.getOwner() != null) {
+                Long key = owners.get(block.getOwner());
+                if (key != null && key == block.getLongKey()) {
+                    current.add(block);
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,43 @@
+package edu.hsutx;
+
+/**
+ * One command from a reservation trace. Readers fill the same instance for every command, so reading a
+ * trace allocates nothing per line; copy out any field that must outlive the next read.
+ */
+public class ReservationCommand {
+    public static final char RESERVE = 'a';
+    public static final char CANCEL = 'd';
+
+    char op;
+    int nameId;
+    int seats;
+    int preference;
+
+    /**
+     * @return {@link #RESERVE} or {@link #CANCEL}.
+     */
+    public char getOp() {
+        return op;
+    }
+
+    /**
+     * @return The customer's id in the reader's {@link NameTable}.
+     */
+    public int getNameId() {
+        return nameId;
+    }
+
+    /**
+     * @return The number of seats to reserve; 0 for a cancellation.
+     */
+    public int getSeats() {
+        return seats;
+    }
+
+    /**
+     * @return Where in the free block to place the seats, as a percentage; 0 for a cancellation.
+     */
+    public int getPreference() {
+        return preference;
+    }
+}
@@ -0,0 +1,399 @@
+package edu.hsutx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies reservation commands to a CowboySeatTree without any GUI, logging or delays.
+ * The Swing controller drives it one command at a time; {@link #replay(String)} runs a whole trace file
+ * at full speed and measures the allocator, which is how we capacity-test it.
+ *
+ * Changes go through a {@link ConcurrentReservationService}, so several threads may reserve and cancel
+ * through one engine at the same time.
+ *
+ * An engine made by {@link #recover(Path)} logs every change to a {@link WriteAheadLog} and can be rebuilt
+ * from it after a crash. {@link #checkpoint()} writes a {@link Checkpoint} in the background so that
+ * recovery only has to replay the log written since.
+ *
+ * Run headless with {@code gradle replay} or {@code gradle replay -Ptrace=path/to/trace.csv}; the trace
+ * may also be a binary trace made with {@code gradle convertTrace}. Add {@code -Pwal=path/to/log} to log
+ * the replay, recovering from that log first.
+ */
+public class ReservationEngine implements Closeable {
+    public static final int VENUE_SEATS = 999999;   // seats 1 through 999,999
+
+    private final CowboySeatTree seatTree;
+    private final ConcurrentReservationService service;
+    private WriteAheadLog log;      // set by recover
+    private Path logPath;
+    private ScheduledExecutorService checkpointer;              // started by the first checkpoint
+    private CompletableFuture<Void> runningCheckpoint = CompletableFuture.completedFuture(null);
+    private boolean closing;                                    // no checkpoints start once set
+    private volatile IOException checkpointFailure;
+
+    public ReservationEngine(CowboySeatTree seatTree) {
+        this.seatTree = seatTree;
+        this.service = new ConcurrentReservationService(seatTree);
+    }
+
+    /**
+     * Rebuilds an engine from its checkpoint and write-ahead log, and keeps logging to the log. The
+     * checkpoint is mapped and its blocks are merged with the changes from the log segments written since,
+     * then the tree is bulk-loaded in one pass; recovery never replays the commands themselves. A log that
+     * does not exist yet is created, and the engine starts with an empty venue.
+     *
+     * @param logPath The write-ahead log. The checkpoint and archived log segments sit beside it.
+     * @return The recovered engine; close it to close the log.
+     * @throws IOException if the checkpoint or log cannot be read or the log cannot be created.
+     */
+    public static ReservationEngine recover(Path logPath) throws IOException {
+        RecoveredVenue venue = new RecoveredVenue();
+        long nextGeneration = 0;
+        Path checkpointPath = checkpointPath(logPath);
+        if (Files.exists(checkpointPath)) {
+            nextGeneration = Checkpoint.restore(checkpointPath, venue);
+        }
+        for (Map.Entry<Long, Path> segment : WriteAheadLog.archivedSegments(logPath).entrySet()) {
+            if (segment.getKey() < nextGeneration) {
+                Files.delete(segment.getValue());   // already in the checkpoint
+            } else {
+                WriteAheadLog.replay(segment.getValue(), venue);    // rolled, but its checkpoint never finished
+                nextGeneration = segment.getKey() + 1;
+            }
+        }
+        WriteAheadLog log = new WriteAheadLog(logPath, nextGeneration, venue);
+
+        List<SeatAssignment> blocks = venue.getBlocks();
+        CowboySeatTree seatTree = new CowboySeatTree();
+        seatTree.bulkLoad(blocks, SeatAssignment::getLongKey);
+        ReservationEngine engine = new ReservationEngine(seatTree);
+        for (SeatAssignment reservation : venue.getCurrentReservations(blocks)) {
+            seatTree.getOwnerIndex().setCurrent(reservation);
+        }
+        engine.log = log;
+        engine.logPath = logPath;
+        engine.service.setWriteAheadLog(log);
+        if (seatTree.isEmpty()) {
+            engine.initialize();
+        }
+        return engine;
+    }
+
+    /**
+     * @param logPath A write-ahead log.
+     * @return Where the checkpoint for that log is kept.
+     */
+    public static Path checkpointPath(Path logPath) {
+        return logPath.resolveSibling(logPath.getFileName() + ".checkpoint");
+    }
+
+    /**
+     * Starts a checkpoint. Writers are held up only while the tree is snapshotted and the log rolled to a
+     * new file; the snapshot is then written out on a background thread while they carry on. Once the
+     * checkpoint is in place, the log segments it covers are deleted. The first checkpoint turns on the
+     * tree's persistent snapshots, which stay on.
+     *
+     * @return A future that completes when the checkpoint is written. If one is already being written, or
+     *         the engine is closing, the latest checkpoint's future.
+     * @throws IOException if the log cannot be rolled.
+     * @throws IllegalStateException if the engine has no write-ahead log.
+     */
+    public synchronized CompletableFuture<Void> checkpoint() throws IOException {
+        if (log == null) {
+            throw new IllegalStateException("Only an engine made by recover has a log to checkpoint");
+        }
+        if (closing || !runningCheckpoint.isDone()) {
+            return runningCheckpoint;
+        }
+        if (checkpointer == null) {
+            checkpointer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "checkpointer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        List<SeatAssignment> current = new ArrayList<>();
+        PersistentRedBlackTree.Snapshot<SeatAssignment> snapshot =
+                service.snapshotAndRollLog(tree -> current.addAll(tree.getOwnerIndex().getCurrentReservations()));
+        long generation = log.getGeneration();
+        runningCheckpoint = CompletableFuture.runAsync(() -> {
+            try {
+                Checkpoint.write(checkpointPath(logPath), snapshot, current, generation);
+                for (Path segment : WriteAheadLog.archivedSegments(logPath).headMap(generation).values()) {
+                    Files.delete(segment);
+                }
+            } catch (IOException e) {
+                checkpointFailure = e;
+                throw new UncheckedIOException(e);
+            }
+        }, checkpointer);
+        return runningCheckpoint;
+    }
+
+    /**
+     * Writes a checkpoint every period, in the background, until the engine is closed. A checkpoint that
+     * fails is reported by {@link #getCheckpointFailure()} and the schedule carries on; the log still holds
+     * every change since the last checkpoint that was written.
+     *
+     * @param period The time between the end of one checkpoint and the start of the next.
+     * @throws IOException if the first checkpoint cannot be started.
+     */
+    public synchronized void scheduleCheckpoints(Duration period) throws IOException {
+        checkpoint();
+        if (closing) {
+            return;
+        }
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                checkpointFailure = e;
+            }
+        }, period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the starting block of empty seats to the tree.
+     */
+    public void initialize() {
+        service.insert(new SeatAssignment(VENUE_SEATS, 1));
+    }
+
+    public CowboySeatTree getSeatTree() {
+        return seatTree;
+    }
+
+    public ConcurrentReservationService getService() {
+        return service;
+    }
+
+    /**
+     * @return The write-ahead log the engine records changes in, or null if it has none.
+     */
+    public WriteAheadLog getWriteAheadLog() {
+        return log;
+    }
+
+    /**
+     * @return The error from the last checkpoint that could not be written, or null.
+     */
+    public IOException getCheckpointFailure() {
+        return checkpointFailure;
+    }
+
+    /**
+     * Reserves seats for a customer.
+     *
+     * @param name        The customer's name.
+     * @param seatsNeeded The number of seats to reserve.
+     * @param preference  Where in the chosen free block to place the seats, as a percentage.
+     * @return The new reservation, or null if no free block was large enough.
+     */
+    public SeatAssignment reserve(String name, int seatsNeeded, int preference) {
+        return service.reserve(name, seatsNeeded, preference);
+    }
+
+    /**
+     * Reserves seats for a group sale of many parties at once.
+     *
+     * @param requests The parties to seat; each owner is the customer's name.
+     * @return The new reservations in request order, with null for parties that could not be seated.
+     * @see CowboySeatTree#reserveBatch(List)
+     */
+    public List<SeatAssignment> reserveBatch(List<CowboySeatTree.Request> requests) {
+        return service.reserveBatch(requests);
+    }
+
+    /**
+     * Cancels a customer's latest reservation and returns the seats to the pool. Seats from the customer's
+     * earlier bookings stay reserved.
+     *
+     * @param name The customer's name.
+     * @return The cancelled reservation, or null if the customer holds no reservation.
+     */
+    public SeatAssignment cancel(String name) {
+        return service.cancel(name);
+    }
+
+    /**
+     * Cancels every block a customer holds, from every booking.
+     *
+     * @param name The customer's name.
+     * @return The cancelled blocks, oldest first; empty if the customer holds none.
+     */
+    public List<SeatAssignment> cancelAll(String name) {
+        return service.cancelAll(name);
+    }
+
+    /**
+     * @param name The customer's name.
+     * @return Every block the customer holds, oldest first.
+     */
+    public List<SeatAssignment> getReservations(String name) {
+        return service.getReservations(name);
+    }
+
+    /**
+     * Replays a reservation trace as fast as possible and times each command. The trace may be CSV (lines
+     * of "a,name,seats,preference" or "d,name", see {@link CsvTraceReader}) or binary (see
+     * {@link BinaryTraceWriter}).
+     *
+     * @param filePath The trace file to replay.
+     * @return Throughput and latency figures for the replay.
+     * @throws IOException if the file cannot be read.
+     */
+    public ReplayResult replay(String filePath) throws IOException {
+        try (TraceReader reader = TraceReader.open(filePath)) {
+            return replay(reader);
+        }
+    }
+
+    /**
+     * Replays every command a trace reader produces as fast as possible and times each command.
+     *
+     * @param reader The trace to replay.
+     * @return Throughput and latency figures for the replay.
+     * @throws IOException if the trace cannot be read.
+     */
+    public ReplayResult replay(TraceReader reader) throws IOException {
+        ReplayResult result = new ReplayResult();
+        long replayStart = System.nanoTime();
+
+        ReservationCommand command = new ReservationCommand();
+        NameTable names = reader.getNames();
+        while (reader.next(command)) {
+            String name = names.getName(command.getNameId());
+            if (command.getOp() == ReservationCommand.RESERVE) {
+                long start = System.nanoTime();
+                SeatAssignment reservation = reserve(name, command.getSeats(), command.getPreference());
+                result.reserveLatency.record(System.nanoTime() - start);
+                if (reservation == null) {
+                    result.failedReservations++;
+                }
+            } else {
+                long start = System.nanoTime();
+                SeatAssignment cancelled = cancel(name);
+                result.cancelLatency.record(System.nanoTime() - start);
+                if (cancelled == null) {
+                    result.failedCancellations++;
+                }
+            }
+        }
+
+        result.elapsedNanos = System.nanoTime() - replayStart;
+        result.freeBlocks = seatTree.getFreeBlockCount();
+        result.reservedBlocks = seatTree.getReservationCount();
+        return result;
+    }
+
+    /**
+     * Stops new checkpoints and waits for a running one, then commits anything still waiting in the
+     * write-ahead log and closes it, if the engine has one.
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService checkpointer;
+        synchronized (this) {
+            closing = true;
+            checkpointer = this.checkpointer;
+        }
+        if (checkpointer != null) {
+            checkpointer.shutdown();    // cancels scheduled checkpoints but finishes one being written
+            try {
+                checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Throughput and per-command latency for one replay.
+     */
+    public static class ReplayResult {
+        final LatencyStats reserveLatency = new LatencyStats();
+        final LatencyStats cancelLatency = new LatencyStats();
+        long elapsedNanos;
+        int failedReservations;
+        int failedCancellations;
+        int freeBlocks;
+        int reservedBlocks;
+
+        public LatencyStats getReserveLatency() {
+            return reserveLatency;
+        }
+
+        public LatencyStats getCancelLatency() {
+            return cancelLatency;
+        }
+
+        public int getOperationCount() {
+            return reserveLatency.getCount() + cancelLatency.getCount();
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public int getFailedReservations() {
+            return failedReservations;
+        }
+
+        public int getFailedCancellations() {
+            return failedCancellations;
+        }
+
+        /**
+         * @return Commands per second over the whole replay, including reading and parsing the trace.
+         */
+        public double getOpsPerSecond() {
+            return getOperationCount() / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @return Commands per second counting only the time spent inside the allocator.
+         */
+        public double getAllocatorOpsPerSecond() {
+            long allocatorNanos = reserveLatency.getTotalNanos() + cancelLatency.getTotalNanos();
+            return getOperationCount() / (allocatorNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d commands in %.1f ms: %.0f ops/sec overall, %.0f ops/sec in the allocator%n",
+                    getOperationCount(), elapsedNanos / 1e6, getOpsPerSecond(), getAllocatorOpsPerSecond())
+                    + "  reserve: " + reserveLatency + String.format(" (%d failed)%n", failedReservations)
+                    + "  cancel:  " + cancelLatency + String.format(" (%d failed)%n", failedCancellations)
+                    + String.format("  final tree: %d free blocks, %d reserved blocks", freeBlocks, reservedBlocks);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filePath = args.length > 0 ? args[0] : "data/reservations.csv";
+        if (args.length > 1) {
+            try (ReservationEngine engine = recover(Path.of(args[1]))) {
+                System.out.println(engine.replay(filePath));
+                System.out.println("  write-ahead log: " + engine.getWriteAheadLog().getSyncCount() + " fsyncs");
+            }
+            return;
+        }
+        ReservationEngine engine = new ReservationEngine(new CowboySeatTree());
+        engine.initialize();
+        System.out.println(engine.replay(filePath));
+    }
+}
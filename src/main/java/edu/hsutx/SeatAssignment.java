@@ -4,7 +4,9 @@ package edu.hsutx;
  * Represents a seat assignment with a unique key based on the quantity and starting index of the seats,
  * along with an optional owner of the seat assignment.
  *
- * The key is a concatenation of the seat quantity and starting index, each formatted to be a fixed-length string.
+ * The key packs the seat quantity and starting index into a single long (quantity * 10^7 + start index),
+ * so blocks sort by size and then by starting seat. The zero-padded String form of the key is only
+ * rendered when it is needed for display.
  * The owner field is optional and can be null if no owner is assigned.
  *
  * @author Todd Dole
@@ -12,7 +14,11 @@ package edu.hsutx;
  */
 
 public class SeatAssignment {
-    private final String key;
+    // Multiplier that moves the seat quantity above the 7-digit start index in a packed key
+    public static final long KEY_MULTIPLIER = 10_000_000L;
+
+    private final long key;
+    private String keyString;   // rendered lazily by getKey()
     private final String owner;
     private final int seatQuantity;
     private final int seatStartIndex;
@@ -27,7 +33,7 @@ public class SeatAssignment {
      * @param seatStartIndex The starting index of the seat assignment.
      */
     public SeatAssignment(int seatQuantity, int seatStartIndex) {
-        this.key = String.format("%06d", seatQuantity) + String.format("%07d",seatStartIndex);
+        this.key = toKey(seatQuantity, seatStartIndex);
         this.owner = null;
         this.seatQuantity = seatQuantity;
         this.seatStartIndex = seatStartIndex;
@@ -43,21 +49,54 @@ public class SeatAssignment {
      * @param seatStartIndex The starting index of the seat assignment.
      */
     public SeatAssignment(String owner, int seatQuantity, int seatStartIndex) {
-        this.key = String.format("%06d", seatQuantity) + String.format("%07d",seatStartIndex);
+        this.key = toKey(seatQuantity, seatStartIndex);
         this.owner = owner;
         this.seatQuantity = seatQuantity;
         this.seatStartIndex = seatStartIndex;
     }
 
+    /**
+     * Packs a seat quantity and start index into a tree key.
+     *
+     * @param seatQuantity   The number of seats in the block.
+     * @param seatStartIndex The starting index of the block.
+     * @return The packed key, ordered by quantity and then by start index.
+     */
+    public static long toKey(int seatQuantity, int seatStartIndex) {
+        return seatQuantity * KEY_MULTIPLIER + seatStartIndex;
+    }
+
+    /**
+     * Parses a key in its String form (6-digit quantity followed by 7-digit start index) into a packed key.
+     *
+     * @param key The String form of the key.
+     * @return The packed key.
+     */
+    public static long parseKey(String key) {
+        return toKey(Integer.parseInt(key.substring(0, 6)), Integer.parseInt(key.substring(6)));
+    }
+
+    /**
+     * Gets the packed key used to order this seat assignment in the tree.
+     *
+     * @return The packed key for the seat assignment.
+     */
+    public long getLongKey() {
+        return key;
+    }
+
     /**
      * Gets the unique key representing this seat assignment.
      * The key is a concatenation of the seat quantity and seat start index,
-     * formatted as 6 digits and 7 digits respectively.
+     * formatted as 6 digits and 7 digits respectively. It is rendered on first use.
      *
      * @return The unique key for the seat assignment.
      */
     public String getKey() {
-        return key;
+        if (keyString == null) {
+            keyString = String.format("%06d", seatQuantity) + String.format("%07d", seatStartIndex);
+        }
+        return keyString;
     }
 
     /**
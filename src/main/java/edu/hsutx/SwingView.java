@@ -1,24 +1,32 @@
 package edu.hsutx;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
+import java.awt.image.DataBufferInt;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Random;
 
 public class SwingView extends JFrame {
+    static final int STADIUM_SIZE = 1000;  // The stadium image is 1000 rows of 1000 seats
+    private static final int FRAME_MILLIS = 16;  // Repaint at most about 60 times a second
+    private static final Duration EXPORT_INTERVAL = Duration.ofSeconds(1);  // Save the stadium image at most once a second
 
     private BufferedImage stadiumImage;
+    private int[] stadiumPixels;  // The image's own pixel array, row by row
+    private Rectangle dirty;  // The part of the stadium changed since the last repaint, or null; EDT only
+    private Timer repaintTimer;  // Fires once per frame while there are changes to paint
     private JPanel stadiumPanel;
     private JScrollPane scrollPane;  // ScrollPane for tree panel
     private JPanel treePanel;  // Tree panel
-    private CowboySeatTree tree;  // Store the CowboySeatTree reference here
+    private volatile PersistentRedBlackTree.Snapshot<SeatAssignment> snapshot;  // Immutable tree to paint, never locked
     private double zoomFactor = 1.0;  // Zoom factor for the tree visualization
-    private int updateCount = 0;
+    private final TreeRenderer treeRenderer = new TreeRenderer();  // Culls the tree to the viewport; EDT only
+    private ImageExporter exporter;  // Saves the stadium image in the background, or null
 
     // Constructor to set up the JFrame
     public SwingView() {
@@ -28,12 +36,9 @@ public class SwingView extends JFrame {
         setLayout(new BorderLayout());
 
         // Add the stadium visualization on the right (East)
-        stadiumImage = new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB);
-        for (int x = 0; x < 1000; x++) {
-            for (int y = 0; y < 1000; y++) {
-                stadiumImage.setRGB(x, y, Color.BLACK.getRGB());
-            }
-        }
+        stadiumImage = new BufferedImage(STADIUM_SIZE, STADIUM_SIZE, BufferedImage.TYPE_INT_RGB);
+        stadiumPixels = ((DataBufferInt) stadiumImage.getRaster().getDataBuffer()).getData();
+        Arrays.fill(stadiumPixels, Color.BLACK.getRGB());
 
         stadiumPanel = new JPanel() {
             @Override
@@ -42,9 +47,20 @@ public class SwingView extends JFrame {
                 g.drawImage(stadiumImage, 0, 0, this);
             }
         };
-        stadiumPanel.setPreferredSize(new Dimension(1000, 1000));
+        stadiumPanel.setPreferredSize(new Dimension(STADIUM_SIZE, STADIUM_SIZE));
         add(stadiumPanel, BorderLayout.EAST);
 
+        // Updates that arrive within one frame are painted together
+        repaintTimer = new Timer(FRAME_MILLIS, e -> {
+            if (dirty != null) {
+                stadiumPanel.repaint(dirty);
+                dirty = null;
+            }
+        });
+        repaintTimer.setRepeats(false);
+
+        exporter = new ImageExporter(Path.of("image.jpg"), ImageExporter.Format.JPEG, EXPORT_INTERVAL, STADIUM_SIZE, STADIUM_SIZE);
+
         // Tree Panel: Set up the scrollable and zoomable tree visualization
         treePanel = new JPanel() {
             @Override
@@ -53,30 +69,10 @@ public class SwingView extends JFrame {
                 Graphics2D g2d = (Graphics2D) g;
                 g2d.scale(zoomFactor, zoomFactor);  // Apply zoom factor
 
-                // Check if tree exists and draw it
-                if (tree != null && tree.getRoot() != null) {
-                    drawTree(g2d, tree.getRoot(), getWidth() / 2, 50, getWidth() / 4);
-                }
-            }
-
-            private void drawTree(Graphics2D g, CowboySeatTree.Node node, int x, int y, int xOffset) {
-                if (node == null) return;
-
-                g.setColor(node.color ? Color.RED : Color.BLACK);
-                g.fillOval(x - 15, y - 15, 30, 30);  // Draw node as a circle
-                g.setColor(Color.WHITE);
-                g.drawString(node.key, x - 10, y + 5);  // Draw the key inside the node
-
-                if (node.left != null) {
-                    g.setColor(Color.BLACK);
-                    g.drawLine(x, y, x - xOffset, y + 50);  // Draw left child line
-                    drawTree(g, node.left, x - xOffset, y + 50, xOffset / 2);  // Recurse to left child
-                }
-
-                if (node.right != null) {
-                    g.setColor(Color.BLACK);
-                    g.drawLine(x, y, x + xOffset, y + 50);  // Draw right child line
-                    drawTree(g, node.right, x + xOffset, y + 50, xOffset / 2);  // Recurse to right child
+                // Draw only what the viewport shows; the snapshot never changes, so writers can keep going meanwhile
+                PersistentRedBlackTree.Snapshot<SeatAssignment> current = snapshot;
+                if (current != null) {
+                    treeRenderer.paint(g2d, current.getRoot(), (int) (getWidth() / zoomFactor), zoomFactor);
                 }
             }
         };
@@ -97,64 +93,100 @@ public class SwingView extends JFrame {
                 } else {
                     zoomFactor /= 1.1;  // Zoom out
                 }
-                treePanel.revalidate();  // Revalidate and repaint to apply zoom
+                resizeTreePanel();  // Deeper levels come into view when zoomed in
                 treePanel.repaint();
             }
         });
     }
 
+    /**
+     * Replaces the exporter that saves the stadium image, e.g. to change its file, format or interval.
+     *
+     * @param exporter The new exporter, or null to stop saving the image.
+     */
+    public void setImageExporter(ImageExporter exporter) {
+        if (this.exporter != null) {
+            this.exporter.close();
+        }
+        this.exporter = exporter;
+    }
+
     // Method to show the GUI
     public void createAndShowGUI() {
         this.setVisible(true);
     }
 
-    // Method to update the stadium visualization with colored seats
+    // Method to update the stadium visualization with colored seats; call it on the EDT
     public void updateStadiumVisualization(int start, int length, boolean colored) {
         Random rand = new Random();
         Color randomColor = new Color(rand.nextInt(256), rand.nextInt(256), rand.nextInt(256));
 
-        for (int i = start; i < start + length; i++) {
-            int row = i / 1000;
-            int col = (row % 2 == 0) ? (i % 1000) : (999 - (i % 1000));
-
-            if (colored) {
-                stadiumImage.setRGB(col, row, randomColor.getRGB());
-            } else {
-                stadiumImage.setRGB(col, row, Color.BLACK.getRGB());
+        Rectangle changed = fillSeats(stadiumPixels, start, length, colored ? randomColor.getRGB() : Color.BLACK.getRGB());
+        if (changed != null) {
+            dirty = dirty == null ? changed : dirty.union(changed);
+            if (!repaintTimer.isRunning()) {
+                repaintTimer.start();
             }
         }
 
-        stadiumPanel.revalidate();
-        stadiumPanel.repaint();
-        updateCount++;
-
-        // Save the stadium image periodically (every 20 updates)
-        if (updateCount % 20 == 0) {
-            File outputfile = new File("image.jpg");
-            try {
-                ImageIO.write(stadiumImage, "jpg", outputfile);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        // Save the stadium image periodically; the exporter copies the pixels and writes them on its own thread
+        if (exporter != null) {
+            exporter.offer(stadiumPixels);
+        }
+    }
+
+    /**
+     * Colors a range of seats in a stadium image. Seats snake through the image: even rows run left to
+     * right and odd rows right to left, so the range covers at most one partial span at each end and whole
+     * rows between, and each row's span is one Arrays.fill.
+     *
+     * @param pixels The image's pixels, STADIUM_SIZE rows of STADIUM_SIZE.
+     * @param start  The first seat.
+     * @param length The number of seats.
+     * @param rgb    The color to fill them with.
+     * @return The rectangle of pixels that changed, or null if the range is empty or off the image.
+     */
+    static Rectangle fillSeats(int[] pixels, int start, int length, int rgb) {
+        int first = Math.max(start, 0);
+        int end = Math.min(start + length, STADIUM_SIZE * STADIUM_SIZE);  // one past the last seat
+        if (first >= end) {
+            return null;
+        }
+        int firstRow = first / STADIUM_SIZE;
+        int lastRow = (end - 1) / STADIUM_SIZE;
+        int minCol = STADIUM_SIZE;
+        int maxCol = -1;
+        for (int row = firstRow; row <= lastRow; row++) {
+            int rowStart = row * STADIUM_SIZE;
+            int from = Math.max(first, rowStart) - rowStart;  // columns in seat order
+            int to = Math.min(end, rowStart + STADIUM_SIZE) - rowStart;
+            if (row % 2 == 1) {
+                int mirrored = STADIUM_SIZE - to;  // odd rows run backwards
+                to = STADIUM_SIZE - from;
+                from = mirrored;
             }
+            Arrays.fill(pixels, rowStart + from, rowStart + to, rgb);
+            minCol = Math.min(minCol, from);
+            maxCol = Math.max(maxCol, to);
         }
+        return new Rectangle(minCol, firstRow, maxCol - minCol, lastRow - firstRow + 1);
     }
 
-    public void updateTreeVisualization(CowboySeatTree tree) {
+    public void updateTreeVisualization(PersistentRedBlackTree.Snapshot<SeatAssignment> snapshot) {
         // Store the tree for use in paintComponent
-        this.tree = tree;
-
-        // Dynamically resize the tree panel based on the depth of the tree
-        int depth = calculateTreeDepth(tree.getRoot());
-        treePanel.setPreferredSize(new Dimension((int) (1000 * zoomFactor), (depth * 100)));  // Adjust the panel size
-        treePanel.revalidate();  // Revalidate to ensure scroll pane updates
-        treePanel.repaint();  // Repaint to refresh the visualization
+        this.snapshot = snapshot;
+        resizeTreePanel();
+        treePanel.repaint();  // Repaints are coalesced, and each one draws only the visible nodes
     }
 
-    // Helper function to calculate tree depth
-    private int calculateTreeDepth(CowboySeatTree.Node node) {
-        if (node == null) return 0;
-        int leftDepth = calculateTreeDepth(node.left);
-        int rightDepth = calculateTreeDepth(node.right);
-        return Math.max(leftDepth, rightDepth) + 1;
+    // Sizes the tree panel to the levels that are drawn; each node knows its height, so this is O(1)
+    private void resizeTreePanel() {
+        PersistentRedBlackTree.Snapshot<SeatAssignment> current = snapshot;
+        int height = TreeRenderer.getPanelHeight(current == null ? null : current.getRoot(), 1000, zoomFactor);
+        Dimension size = new Dimension((int) (1000 * zoomFactor), (int) (height * zoomFactor));
+        if (!size.equals(treePanel.getPreferredSize())) {
+            treePanel.setPreferredSize(size);
+            treePanel.revalidate();  // Revalidate to ensure scroll pane updates
+        }
     }
 }
@@ -0,0 +1,45 @@
+package edu.hsutx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts a reservation trace (CSV or binary) to the binary trace format.
+ *
+ * Run with {@code gradle convertTrace [-Ptrace=in.csv] [-Pout=out.bin] [-Pvarint]}.
+ */
+public class TraceConverter {
+
+    /**
+     * Converts a trace to the binary format.
+     *
+     * @param inputPath  The trace to convert.
+     * @param outputPath The binary trace to write.
+     * @param varint     true to pack records with varints, false for fixed 12-byte records.
+     * @return The number of commands converted.
+     * @throws IOException if either file cannot be read or written.
+     */
+    public static long convert(String inputPath, String outputPath, boolean varint) throws IOException {
+        long commands = 0;
+        try (TraceReader reader = TraceReader.open(inputPath);
+             BinaryTraceWriter writer = new BinaryTraceWriter(Path.of(outputPath), reader.getNames(), varint)) {
+            ReservationCommand command = new ReservationCommand();
+            while (reader.next(command)) {
+                writer.write(command);
+                commands++;
+            }
+        }
+        return commands;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String inputPath = args.length > 0 ? args[0] : "data/reservations.csv";
+        String outputPath = args.length > 1 ? args[1] : "data/reservations.bin";
+        boolean varint = args.length > 2 && args[2].equals("--varint");
+
+        long commands = convert(inputPath, outputPath, varint);
+        System.out.printf("Converted %d commands: %s (%d bytes) -> %s (%d bytes)%n", commands,
+                inputPath, Files.size(Path.of(inputPath)), outputPath, Files.size(Path.of(outputPath)));
+    }
+}
@@ -0,0 +1,46 @@
+package edu.hsutx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams the commands of a reservation trace into a reusable {@link ReservationCommand}.
+ */
+public interface TraceReader extends Closeable {
+
+    /**
+     * Opens a trace in either format: a binary trace if the file starts with the binary magic number,
+     * otherwise a CSV trace.
+     *
+     * @param filePath The trace to read.
+     * @return A reader for the trace.
+     * @throws IOException if the file cannot be opened.
+     */
+    static TraceReader open(String filePath) throws IOException {
+        byte[] magic;
+        try (InputStream in = Files.newInputStream(Path.of(filePath))) {
+            magic = in.readNBytes(4);
+        }
+        boolean binary = magic.length == 4
+                && (magic[0] & 0xFF | (magic[1] & 0xFF) << 8 | (magic[2] & 0xFF) << 16 | (magic[3] & 0xFF) << 24)
+                == BinaryTraceWriter.MAGIC;
+        return binary ? new BinaryTraceReader(filePath) : new CsvTraceReader(filePath);
+    }
+
+    /**
+     * Reads the next command into the given record.
+     *
+     * @param command The record to fill.
+     * @return true if a command was read, false at the end of the trace.
+     * @throws IOException if the trace cannot be read or is malformed.
+     */
+    boolean next(ReservationCommand command) throws IOException;
+
+    /**
+     * @return The table that maps the commands' name ids back to names.
+     */
+    NameTable getNames();
+}
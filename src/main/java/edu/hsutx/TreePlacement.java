@@ -0,0 +1,65 @@
+package edu.hsutx;
+
+/**
+ * A placement strategy backed by a {@link CowboySeatTree}, which splits free blocks exactly where the
+ * preference asks and merges released seats with both neighbors. Only the choice of block differs between
+ * the fits, and each fit searches its own index of the tree: best fit and worst fit the free blocks ordered
+ * by size, first fit the free blocks ordered by seat number.
+ */
+public class TreePlacement implements PlacementStrategy {
+    private final CowboySeatTree tree = new CowboySeatTree();
+    private final CowboySeatTree.Fit fit;
+
+    /**
+     * @param fit   Which of the free blocks that fit to split.
+     * @param seats The number of seats in the venue, all free to begin with.
+     */
+    public TreePlacement(CowboySeatTree.Fit fit, int seats) {
+        this.fit = fit;
+        tree.insert(new SeatAssignment(seats, 1));
+    }
+
+    @Override
+    public String getName() {
+        switch (fit) {
+            case FIRST:
+                return "first-fit";
+            case WORST:
+                return "worst-fit";
+            default:
+                return "best-fit";
+        }
+    }
+
+    @Override
+    public SeatAssignment reserve(String owner, int seatsNeeded, int preference) {
+        return tree.reserve(owner, seatsNeeded, preference, fit);
+    }
+
+    @Override
+    public SeatAssignment release(SeatAssignment reservation) {
+        return tree.release(reservation);
+    }
+
+    @Override
+    public long getFreeSeatCount() {
+        return tree.getFreeSeatCount();
+    }
+
+    @Override
+    public int getFreeBlockCount() {
+        return tree.getFreeBlockCount();
+    }
+
+    @Override
+    public int getLargestFreeBlock() {
+        return tree.getLargestFreeBlock();
+    }
+
+    /**
+     * @return The tree holding the blocks.
+     */
+    public CowboySeatTree getTree() {
+        return tree;
+    }
+}
@@ -0,0 +1,146 @@
+package edu.hsutx;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Draws a snapshot of the seat tree for {@link SwingView}, touching only the nodes that can be seen.
+ *
+ * Each level of the drawing halves the horizontal gap between a node and its children, so a subtree fits
+ * in a box twice its first gap wide on either side and one level high per level of the subtree. A subtree
+ * whose box misses the clip (the visible part of the scroll pane) is skipped without being visited. Once
+ * the gap shrinks below {@link #MIN_SPREAD} pixels on screen, the nodes would only smear into each other,
+ * so the whole subtree is drawn as one summary glyph with its node count and free seats instead.
+ *
+ * The free seats of a subtree are cached by node. Snapshot nodes never change and a new snapshot shares
+ * every node off the changed path with the last one, so after a reservation only a few new nodes need
+ * adding up. Use a renderer from one thread, normally the EDT.
+ */
+public class TreeRenderer {
+    static final int NODE_RADIUS = 15;
+    static final int LEVEL_HEIGHT = 50;
+    static final int MIN_SPREAD = 20;      // on-screen pixels between a node and its child below which we summarize
+    private static final Color SUMMARY_COLOR = new Color(90, 90, 160);
+
+    private final Map<PersistentRedBlackTree.Node<SeatAssignment>, Long> freeSeats = new WeakHashMap<>();
+    private int drawnNodes;
+    private int drawnSummaries;
+
+    /**
+     * Draws the tree with its root at the top middle of a panel.
+     *
+     * @param g     The graphics to draw on, already scaled by the zoom factor and clipped to what is visible.
+     * @param root  The root of the snapshot to draw, or null.
+     * @param width The width of the panel, in the same units as g.
+     * @param zoom  The zoom factor g is scaled by, to judge what is too small to see.
+     */
+    public void paint(Graphics2D g, PersistentRedBlackTree.Node<SeatAssignment> root, int width, double zoom) {
+        drawnNodes = 0;
+        drawnSummaries = 0;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        int minSpread = (int) Math.ceil(MIN_SPREAD / zoom);
+        draw(g, root, width / 2, LEVEL_HEIGHT, width / 4, clip, minSpread);
+    }
+
+    private void draw(Graphics2D g, PersistentRedBlackTree.Node<SeatAssignment> node, int x, int y, int xOffset,
+                      Rectangle clip, int minSpread) {
+        if (node == null) return;
+
+        // Skip the subtree if its bounding box is out of view; its nodes lie within 2 * xOffset either side
+        int reach = 2 * xOffset + NODE_RADIUS;
+        int bottom = y + (node.height - 1) * LEVEL_HEIGHT + NODE_RADIUS;
+        if (x + reach < clip.x || x - reach > clip.x + clip.width || y - NODE_RADIUS > clip.y + clip.height || bottom < clip.y) {
+            return;
+        }
+
+        if (xOffset < minSpread && node.size > 1) {
+            drawSummary(g, node, x, y);
+            return;
+        }
+
+        g.setColor(node.isRed ? Color.RED : Color.BLACK);
+        g.fillOval(x - NODE_RADIUS, y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);  // Draw node as a circle
+        g.setColor(Color.WHITE);
+        g.drawString(node.value.getKey(), x - 10, y + 5);  // Draw the key inside the node
+        drawnNodes++;
+
+        if (node.left != null) {
+            g.setColor(Color.BLACK);
+            g.drawLine(x, y, x - xOffset, y + LEVEL_HEIGHT);  // Draw left child line
+            draw(g, node.left, x - xOffset, y + LEVEL_HEIGHT, xOffset / 2, clip, minSpread);
+        }
+
+        if (node.right != null) {
+            g.setColor(Color.BLACK);
+            g.drawLine(x, y, x + xOffset, y + LEVEL_HEIGHT);  // Draw right child line
+            draw(g, node.right, x + xOffset, y + LEVEL_HEIGHT, xOffset / 2, clip, minSpread);
+        }
+    }
+
+    // One box standing in for a whole subtree: how many blocks it holds and how many of their seats are free
+    private void drawSummary(Graphics2D g, PersistentRedBlackTree.Node<SeatAssignment> node, int x, int y) {
+        g.setColor(SUMMARY_COLOR);
+        g.fillRoundRect(x - 2 * NODE_RADIUS, y - NODE_RADIUS, 4 * NODE_RADIUS, 2 * NODE_RADIUS, 8, 8);
+        g.setColor(Color.WHITE);
+        g.drawString(node.size + " blk", x - 2 * NODE_RADIUS + 3, y - 2);
+        g.drawString(getFreeSeats(node) + " free", x - 2 * NODE_RADIUS + 3, y + 11);
+        drawnSummaries++;
+    }
+
+    /**
+     * @param node The root of a subtree.
+     * @return The number of unassigned seats in the subtree.
+     */
+    long getFreeSeats(PersistentRedBlackTree.Node<SeatAssignment> node) {
+        if (node == null) {
+            return 0;
+        }
+        Long cached = freeSeats.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        long free = getFreeSeats(node.left) + getFreeSeats(node.right);
+        if (node.value.getOwner() == null) {
+            free += node.value.getSeatQuantity();
+        }
+        freeSeats.put(node, free);
+        return free;
+    }
+
+    /**
+     * @return The number of nodes drawn by the last paint.
+     */
+    public int getDrawnNodes() {
+        return drawnNodes;
+    }
+
+    /**
+     * @return The number of summary glyphs drawn by the last paint.
+     */
+    public int getDrawnSummaries() {
+        return drawnSummaries;
+    }
+
+    /**
+     * @param root  The root of a snapshot.
+     * @param width The width of the panel, unzoomed.
+     * @param zoom  The zoom factor.
+     * @return The unzoomed height the panel needs to show the tree down to its summary glyphs.
+     */
+    public static int getPanelHeight(PersistentRedBlackTree.Node<SeatAssignment> root, int width, double zoom) {
+        int levels = 0;
+        for (double xOffset = width / 4.0; levels < PersistentRedBlackTree.heightOf(root); xOffset /= 2) {
+            levels++;
+            if (xOffset * zoom < MIN_SPREAD) {
+                break;      // this level is drawn as summaries, and nothing below it
+            }
+        }
+        return (levels + 1) * LEVEL_HEIGHT;
+    }
+}
@@ -0,0 +1,555 @@
+package edu.hsutx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only write-ahead log of changes to a CowboySeatTree, so the venue survives a crash.
+ *
+ * The tree appends a record for every block it inserts or deletes and every current reservation it sets,
+ * and {@link ConcurrentReservationService}
+ * ends each change (a reservation, a cancellation, a batch) with {@link #endChange()} while it still holds
+ * the write lock, so the log is in the same order as the tree. A change that fails partway is dropped with
+ * {@link #discardChange()}. {@link #commit(long)} is called after the
+ * lock is released and returns once the change is on disk. Commits are grouped: one caller writes and
+ * fsyncs every change ended so far while the others wait, and whatever is ended during that fsync goes out
+ * together in the next one, so under load one fsync covers many reservations.
+ *
+ * Logging blocks rather than commands means recovery never runs the allocator. Opening an existing log
+ * folds its changes into a {@link RecoveredVenue}, which {@link ReservationEngine#recover(Path)} bulk-loads.
+ *
+ * A checkpoint {@link #roll() rolls} the log: the file is renamed to an archived segment (the file name
+ * followed by the generation number) and a new file with the next generation number takes its place.
+ * A checkpoint covers every generation before its own, so once it is written the archived segments can be
+ * deleted. Name ids are numbered afresh in each file, so every segment can be read on its own.
+ *
+ * The file is little-endian:
+ * <pre>
+ *   header  16 bytes: "CSWL", version (short), 2 unused bytes, generation (long)
+ *   frames  one or more whole changes: payload length (int), CRC32C of the payload (int), payload
+ * </pre>
+ * The payload is a run of records, every number in them a varint:
+ * <pre>
+ *   'n' name id, length in bytes, UTF-8 name     before the first block the name owns
+ *   'i' name id + 1 (0 if free), start seat, seat count     a block was inserted
+ *   'x' name id + 1 (0 if free), start seat, seat count     a block was deleted
+ *   'c' name id, start seat, seat count           the block became its owner's current reservation
+ *   'e'                                           the end of a change
+ * </pre>
+ * A frame cut short by a crash fails its length or CRC check; recovery stops there and truncates the file.
+ */
+public class WriteAheadLog implements Closeable {
+    static final int MAGIC = 0x4C575343;        // "CSWL" read as a little-endian int
+    static final short VERSION = 3;
+    static final int HEADER_SIZE = 16;
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private static final byte NAME = 'n';
+    private static final byte INSERT = 'i';
+    private static final byte DELETE = 'x';
+    private static final byte CURRENT = 'c';
+    private static final byte END = 'e';
+
+    private final Path path;
+    private FileChannel channel;
+    private long generation;
+    private NameTable names = new NameTable();     // ids as written in this log file; each file has its own
+    private final CRC32C crc = new CRC32C();            // only used by the thread writing a frame
+    private ByteBuffer pending = newBuffer(1 << 16);     // changes waiting for the next commit
+    private ByteBuffer spare = newBuffer(1 << 16);       // the frame being written, then reused
+    private int changeEnd = FRAME_HEADER_SIZE;          // where the last ended change stops in pending
+    private long appended;      // sequence number of the last change ended
+    private long durable;       // sequence number of the last change known to be on disk
+    private boolean flushing;
+    private IOException failure;
+    private long syncCount;
+    private long recoveredChanges;
+
+    /**
+     * Opens a log for appending, creating it if it does not exist.
+     *
+     * @param path The log file.
+     * @throws IOException if the file cannot be opened or is not a write-ahead log.
+     */
+    public WriteAheadLog(Path path) throws IOException {
+        this(path, 0, new RecoveredVenue());
+    }
+
+    /**
+     * Opens a log for appending. An existing log is read into the venue first, and whatever a crash left
+     * after its last intact frame is truncated.
+     *
+     * @param path       The log file.
+     * @param generation The generation number for a new file; an existing file keeps its own.
+     * @param venue      Receives the changes in an existing file.
+     * @throws IOException if the file cannot be opened or is not a write-ahead log.
+     */
+    WriteAheadLog(Path path, long generation, RecoveredVenue venue) throws IOException {
+        this.path = path;
+        this.generation = generation;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                channel.truncate(0);    // new, or a crash while a roll was creating it
+                writeHeader();
+            } else {
+                long changesBefore = venue.getChangeCount();
+                MappedByteBuffer file = map(channel, path);
+                this.generation = file.getLong(8);
+                int end = readFrames(file, venue, names, crc);
+                recoveredChanges = venue.getChangeCount() - changesBefore;
+                channel.truncate(end);
+                channel.position(end);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads an archived segment into a venue without opening it for appending.
+     *
+     * @param segment The archived log file.
+     * @param venue   Receives the changes in the segment.
+     * @return The segment's generation number.
+     * @throws IOException if the file cannot be read or is not a write-ahead log.
+     */
+    static long replay(Path segment, RecoveredVenue venue) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer file = map(channel, segment);
+            readFrames(file, venue, new NameTable(), new CRC32C());
+            return file.getLong(8);
+        }
+    }
+
+    /**
+     * Records that a block was inserted into the tree, as part of the current change.
+     *
+     * @param block The inserted block.
+     */
+    public synchronized void logInsert(SeatAssignment block) {
+        int nameId = block.getOwner() == null ? 0 : nameId(block.getOwner()) + 1;
+        ensureRoom(16);
+        pending.put(INSERT);
+        putVarint(nameId);
+        putVarint(block.getSeatStartIndex());
+        putVarint(block.getSeatQuantity());
+    }
+
+    /**
+     * Records that a block was deleted from the tree, as part of the current change.
+     *
+     * @param block The deleted block.
+     */
+    public synchronized void logDelete(SeatAssignment block) {
+        int nameId = block.getOwner() == null ? 0 : nameId(block.getOwner()) + 1;
+        ensureRoom(16);
+        pending.put(DELETE);
+        putVarint(nameId);
+        putVarint(block.getSeatStartIndex());
+        putVarint(block.getSeatQuantity());
+    }
+
+    /**
+     * Records that a reservation became its owner's current one, the one a cancellation releases, as part
+     * of the current change.
+     *
+     * @param reservation The reservation.
+     */
+    public synchronized void logSetCurrent(SeatAssignment reservation) {
+        int nameId = nameId(reservation.getOwner());
+        ensureRoom(16);
+        pending.put(CURRENT);
+        putVarint(nameId);
+        putVarint(reservation.getSeatStartIndex());
+        putVarint(reservation.getSeatQuantity());
+    }
+
+    /**
+     * Ends the current change. Its records are written together, so recovery sees all of them or none.
+     *
+     * @return The change's sequence number, to pass to {@link #commit(long)}. If nothing was recorded since
+     *         the last change, the last change's sequence number.
+     */
+    public synchronized long endChange() {
+        if (pending.position() > changeEnd) {
+            ensureRoom(1);
+            pending.put(END);
+            changeEnd = pending.position();
+            appended++;
+        }
+        return appended;
+    }
+
+    /**
+     * Drops the records of the current change, e.g. because it failed partway and the tree was put back as
+     * it was. Names the change introduced stay in the log, since this file's name ids already count them.
+     */
+    public synchronized void discardChange() {
+        byte[] bytes = pending.array();
+        ByteBuffer records = ByteBuffer.wrap(bytes, changeEnd, pending.position() - changeEnd);
+        int kept = changeEnd;
+        while (records.hasRemaining()) {
+            int start = records.position();
+            byte type = records.get();
+            getVarint(records);     // the name id, or the owner's name id + 1
+            if (type == NAME) {
+                int length = getVarint(records);
+                records.position(records.position() + length);
+                System.arraycopy(bytes, start, bytes, kept, records.position() - start);
+                kept += records.position() - start;
+            } else {
+                getVarint(records);
+                getVarint(records);
+            }
+        }
+        pending.position(kept);
+    }
+
+    /**
+     * Waits until a record and everything appended before it are on disk. If no other thread is writing,
+     * this thread writes and fsyncs every record appended so far in one frame.
+     *
+     * @param sequence A sequence number returned by {@link #endChange()}.
+     * @throws IOException if the log could not be written, now or by an earlier commit.
+     */
+    public void commit(long sequence) throws IOException {
+        ByteBuffer frame;
+        long frameEnd;
+        synchronized (this) {
+            while (true) {
+                if (failure != null) {
+                    throw new IOException("The write-ahead log could not be written", failure);
+                }
+                if (durable >= sequence) {
+                    return;
+                }
+                if (!flushing) {
+                    break;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the write-ahead log");
+                }
+            }
+            // Take every ended change; a change still being recorded moves to the spare buffer
+            flushing = true;
+            frame = pending;
+            pending = spare;
+            frameEnd = appended;
+            int partial = frame.position() - changeEnd;
+            if (partial > 0) {
+                ensureRoom(partial);
+                pending.put(frame.array(), changeEnd, partial);
+            }
+            frame.position(changeEnd);
+            changeEnd = FRAME_HEADER_SIZE;
+        }
+
+        IOException error = null;
+        try {
+            writeFrame(frame);
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+            throw e;
+        } finally {
+            frame.clear().position(FRAME_HEADER_SIZE);
+            synchronized (this) {
+                spare = frame;
+                flushing = false;
+                if (error == null) {
+                    durable = frameEnd;
+                    syncCount++;
+                } else {
+                    failure = error;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Commits every ended change and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        long last;
+        synchronized (this) {
+            last = appended;
+        }
+        try {
+            commit(last);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Moves the log to an archived segment and starts a new file, one generation later, in its place.
+     * Every ended change is written to the old file first. The caller must keep changes from being
+     * recorded while the log rolls, e.g. by holding the service's write lock.
+     *
+     * @return The archived segment.
+     * @throws IOException if the old file cannot be finished or the new one created.
+     */
+    synchronized Path roll() throws IOException {
+        while (flushing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the write-ahead log");
+            }
+        }
+        if (failure != null) {
+            throw new IOException("The write-ahead log could not be written", failure);
+        }
+        if (changeEnd > FRAME_HEADER_SIZE) {
+            writeFrame(pending);
+            pending.clear().position(FRAME_HEADER_SIZE);
+            changeEnd = FRAME_HEADER_SIZE;
+            syncCount++;
+        }
+        channel.force(false);
+        durable = appended;
+        channel.close();
+
+        Path archive = segmentPath(path, generation);
+        Files.move(path, archive, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        generation++;
+        names = new NameTable();        // so each segment can be read on its own
+        writeHeader();
+        syncDirectory(path);
+        return archive;
+    }
+
+    /**
+     * @param path       A log file.
+     * @param generation A generation number.
+     * @return Where {@link #roll()} archives that generation of the log.
+     */
+    static Path segmentPath(Path path, long generation) {
+        return path.resolveSibling(path.getFileName() + "." + generation);
+    }
+
+    /**
+     * @param path A log file.
+     * @return The log's archived segments by generation number, oldest first.
+     * @throws IOException if the log's directory cannot be listed.
+     */
+    static SortedMap<Long, Path> archivedSegments(Path path) throws IOException {
+        SortedMap<Long, Path> segments = new TreeMap<>();
+        String prefix = path.getFileName() + ".";
+        try (Stream<Path> files = Files.list(path.toAbsolutePath().getParent())) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.length() > prefix.length()
+                        && name.substring(prefix.length()).chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(name.substring(prefix.length())), file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * @return The generation number of the current file.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return The number of fsyncs so far; fewer than the number of commits when commits were grouped.
+     */
+    public synchronized long getSyncCount() {
+        return syncCount;
+    }
+
+    /**
+     * @return The number of changes read back from the file when the log was opened.
+     */
+    public long getRecoveredChangeCount() {
+        return recoveredChanges;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(generation).flip();
+        channel.write(header, 0);
+        channel.force(true);
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Makes a rename or a new file in a directory durable. Some platforms can't open a directory; there the
+     * rename is left to the file system.
+     */
+    static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+            // not supported here
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, Path path) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Write-ahead logs over 2 GB are not supported: " + path);
+        }
+        MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        if (size < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a write-ahead log: " + path);
+        }
+        if (file.getShort(4) != VERSION) {
+            throw new IOException("Unsupported write-ahead log version " + file.getShort(4) + ": " + path);
+        }
+        return file;
+    }
+
+    /**
+     * Reads every intact frame into the venue.
+     *
+     * @return The offset just after the last intact frame.
+     */
+    private static int readFrames(MappedByteBuffer file, RecoveredVenue venue, NameTable names, CRC32C crc)
+            throws IOException {
+        List<String> idToName = new ArrayList<>();
+        int size = file.limit();
+        int position = HEADER_SIZE;
+        while (position + FRAME_HEADER_SIZE <= size) {
+            int length = file.getInt(position);
+            if (length <= 0 || position + FRAME_HEADER_SIZE + (long) length > size) {
+                break;
+            }
+            ByteBuffer payload = file.slice(position + FRAME_HEADER_SIZE, length).order(ByteOrder.LITTLE_ENDIAN);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != file.getInt(position + 4)) {
+                break;
+            }
+            readRecords(payload, idToName, names, venue);
+            position += FRAME_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private static void readRecords(ByteBuffer payload, List<String> idToName, NameTable names, RecoveredVenue venue)
+            throws IOException {
+        while (payload.hasRemaining()) {
+            byte type = payload.get();
+            if (type == NAME) {
+                getVarint(payload);     // names are numbered in order
+                byte[] name = new byte[getVarint(payload)];
+                payload.get(name);
+                idToName.add(new String(name, StandardCharsets.UTF_8));
+                names.intern(idToName.get(idToName.size() - 1));
+            } else if (type == INSERT) {
+                int nameId = getVarint(payload);
+                int start = getVarint(payload);
+                int seats = getVarint(payload);
+                venue.insert(nameId == 0 ? new SeatAssignment(seats, start)
+                        : new SeatAssignment(idToName.get(nameId - 1), seats, start));
+            } else if (type == DELETE) {
+                int nameId = getVarint(payload);
+                int start = getVarint(payload);
+                int seats = getVarint(payload);
+                venue.delete(nameId == 0 ? null : idToName.get(nameId - 1), SeatAssignment.toKey(seats, start));
+            } else if (type == CURRENT) {
+                int nameId = getVarint(payload);
+                int start = getVarint(payload);
+                int seats = getVarint(payload);
+                venue.setCurrent(idToName.get(nameId), SeatAssignment.toKey(seats, start));
+            } else if (type == END) {
+                venue.endChange();
+            } else {
+                throw new IOException("Corrupt write-ahead log: unknown record type " + type);
+            }
+        }
+    }
+
+    private int nameId(String name) {
+        int count = names.size();
+        int id = names.intern(name);
+        if (id == count) {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            ensureRoom(utf8.length + 11);
+            pending.put(NAME);
+            putVarint(id);
+            putVarint(utf8.length);
+            pending.put(utf8);
+        }
+        return id;
+    }
+
+    private void writeFrame(ByteBuffer frame) throws IOException {
+        int length = frame.position() - FRAME_HEADER_SIZE;
+        crc.reset();
+        crc.update(frame.array(), FRAME_HEADER_SIZE, length);
+        frame.putInt(0, length);
+        frame.putInt(4, (int) crc.getValue());
+        frame.flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    private void ensureRoom(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer bigger = newBuffer(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            pending.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        pending.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(FRAME_HEADER_SIZE);     // room for the frame header
+        return buffer;
+    }
+}
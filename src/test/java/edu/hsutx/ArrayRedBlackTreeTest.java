@@ -0,0 +1,143 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ArrayRedBlackTree class.
+ */
+public class ArrayRedBlackTreeTest {
+
+    @Test
+    public void testInsertGetDelete() {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree(10);
+        assertTrue(tree.insert(SeatAssignment.toKey(10, 1), 7));
+        assertTrue(tree.insert(SeatAssignment.toKey(5, 11), 8));
+        assertFalse(tree.insert(SeatAssignment.toKey(10, 1), 9), "Duplicate keys should be rejected.");
+
+        assertEquals(2, tree.getSize());
+        assertEquals(7, tree.getValue(SeatAssignment.toKey(10, 1)));
+        assertEquals(ArrayRedBlackTree.NO_VALUE, tree.getValue(SeatAssignment.toKey(3, 1)));
+
+        assertTrue(tree.delete(SeatAssignment.toKey(10, 1)));
+        assertFalse(tree.delete(SeatAssignment.toKey(10, 1)));
+        assertFalse(tree.contains(SeatAssignment.toKey(10, 1)));
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testCeiling() {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree(10);
+        tree.insert(10, 1);
+        tree.insert(20, 2);
+        tree.insert(30, 3);
+
+        assertEquals(10, tree.keyAt(tree.ceiling(5)));
+        assertEquals(2, tree.valueAt(tree.ceiling(20)));
+        assertEquals(30, tree.keyAt(tree.ceiling(21)));
+        assertEquals(ArrayRedBlackTree.NIL, tree.ceiling(31));
+    }
+
+    @Test
+    public void testSlotsAreReusedWithinCapacity() {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree(100);
+        long storage = tree.getStorageBytes();
+
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                assertTrue(tree.insert(round * 1_000L + i, i));
+            }
+            for (int i = 0; i < 100; i++) {
+                assertTrue(tree.delete(round * 1_000L + i));
+            }
+        }
+
+        assertTrue(tree.isEmpty());
+        assertEquals(storage, tree.getStorageBytes(), "Storage should never grow.");
+    }
+
+    @Test
+    public void testInsertBeyondCapacityFails() {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree(2);
+        tree.insert(1, 1);
+        tree.insert(2, 2);
+        assertThrows(IllegalStateException.class, () -> tree.insert(3, 3));
+    }
+
+    @Test
+    public void testValidateDegenerateChainWithoutRecursion() {
+        // Relink a full tree into a 200,000-node chain leaning right, which no valid tree has but a bug could make
+        int count = 200_000;
+        ArrayRedBlackTree tree = new ArrayRedBlackTree(count);
+        for (int i = 0; i < count; i++) {
+            tree.insert(i, i);
+        }
+        int root = ArrayRedBlackTree.NIL;
+        for (int slot = 1; slot <= count; slot++) {
+            if (tree.parent[slot] == ArrayRedBlackTree.NIL) {
+                root = slot;
+            }
+        }
+        int tail = root;
+        for (int slot = 1; slot <= count; slot++) {
+            if (slot != root) {
+                tree.right[tail] = slot;
+                tree.parent[slot] = tail;
+                tail = slot;
+            }
+        }
+        for (int slot = 1; slot <= count; slot++) {
+            tree.left[slot] = ArrayRedBlackTree.NIL;
+        }
+        tree.right[tail] = ArrayRedBlackTree.NIL;
+        assertFalse(tree.validateRedBlackTree(), "The chain breaks the red-black rules.");
+
+        // A child whose parent link points elsewhere is caught rather than followed
+        ArrayRedBlackTree small = new ArrayRedBlackTree(10);
+        for (int i = 0; i < 10; i++) {
+            small.insert(i, i);
+        }
+        assertTrue(small.validateRedBlackTree());
+        int leaf = small.ceiling(0);
+        small.parent[leaf] = leaf;
+        assertFalse(small.validateRedBlackTree());
+    }
+
+    @Test
+    public void testRandomOperationsStayValid() {
+        ArrayRedBlackTree tree = new ArrayRedBlackTree(2_000);
+        Random random = new Random(7);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) > 0) {
+                assertEquals(!expected.containsKey(key), tree.insert(key, i));
+                expected.putIfAbsent(key, i);
+            } else {
+                assertEquals(expected.containsKey(key), tree.delete(key));
+                expected.remove(key);
+            }
+            if (i % 500 == 0) {
+                assertTrue(tree.validateRedBlackTree(), "Tree should stay valid after operation " + i);
+            }
+        }
+
+        assertEquals(expected.size(), tree.getSize());
+        for (long key = 0; key < 2_000; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? ArrayRedBlackTree.NO_VALUE : value, tree.getValue(key));
+            Long ceiling = expected.ceilingKey(key);
+            int node = tree.ceiling(key);
+            if (ceiling == null) {
+                assertEquals(ArrayRedBlackTree.NIL, node);
+            } else {
+                assertEquals(ceiling, tree.keyAt(node));
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the BinaryTraceWriter, BinaryTraceReader and TraceConverter classes.
+ */
+public class BinaryTraceReaderTest {
+    private static final String TRACE = "data/reservations.csv";
+
+    @TempDir
+    Path tempDir;
+
+    // Reads every command back as "op,name[,seats,preference]" so traces can be compared line by line
+    private static List<String> readAll(TraceReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        ReservationCommand command = new ReservationCommand();
+        while (reader.next(command)) {
+            String name = reader.getNames().getName(command.getNameId());
+            lines.add(command.getOp() == ReservationCommand.RESERVE
+                    ? "a," + name + "," + command.getSeats() + "," + command.getPreference()
+                    : "d," + name);
+        }
+        return lines;
+    }
+
+    @Test
+    public void testRoundTripMatchesCsvTrace() throws IOException {
+        List<String> expected;
+        try (CsvTraceReader reader = new CsvTraceReader(TRACE)) {
+            expected = readAll(reader);
+        }
+
+        for (boolean varint : new boolean[]{false, true}) {
+            Path binary = tempDir.resolve(varint ? "varint.bin" : "fixed.bin");
+            assertEquals(expected.size(), TraceConverter.convert(TRACE, binary.toString(), varint));
+            try (BinaryTraceReader reader = new BinaryTraceReader(binary.toString())) {
+                assertEquals(expected.size(), reader.getCommandCount());
+                assertEquals(expected, readAll(reader), varint ? "varint records" : "fixed records");
+            }
+            try (TraceReader reader = TraceReader.open(binary.toString())) {
+                assertInstanceOf(BinaryTraceReader.class, reader);
+            }
+            assertTrue(Files.size(binary) < Files.size(Path.of(TRACE)),
+                    "The binary trace should be smaller than the CSV trace.");
+        }
+        try (TraceReader reader = TraceReader.open(TRACE)) {
+            assertInstanceOf(CsvTraceReader.class, reader);
+        }
+    }
+
+    @Test
+    public void testNonAsciiNamesAndLargeValues() throws IOException {
+        String text = "a,Zo\u00eb \u00c5ngstr\u00f6m,123456789,65535\nd,Zo\u00eb \u00c5ngstr\u00f6m\na,\uD83E\uDD20 Cowboy,3,0\n";
+        Path csv = Files.write(tempDir.resolve("names.csv"), text.getBytes(StandardCharsets.UTF_8));
+        List<String> expected = List.of("a,Zo\u00eb \u00c5ngstr\u00f6m,123456789,65535", "d,Zo\u00eb \u00c5ngstr\u00f6m", "a,\uD83E\uDD20 Cowboy,3,0");
+
+        Path varint = tempDir.resolve("names.bin");
+        TraceConverter.convert(csv.toString(), varint.toString(), true);
+        try (TraceReader reader = TraceReader.open(varint.toString())) {
+            assertEquals(expected, readAll(reader));
+            assertEquals(2, reader.getNames().size());
+        }
+    }
+
+    @Test
+    public void testNameLongerThanWriteBuffer() throws IOException {
+        String longName = "x".repeat(100_000);     // more than the writer's 64 KB buffer
+        String text = "a,short,2,50\na," + longName + ",3,0\na,after,1,100\n";
+        Path csv = Files.write(tempDir.resolve("long.csv"), text.getBytes(StandardCharsets.UTF_8));
+        List<String> expected = List.of("a,short,2,50", "a," + longName + ",3,0", "a,after,1,100");
+
+        for (boolean varint : new boolean[]{false, true}) {
+            Path binary = tempDir.resolve(varint ? "long-varint.bin" : "long-fixed.bin");
+            TraceConverter.convert(csv.toString(), binary.toString(), varint);
+            try (TraceReader reader = TraceReader.open(binary.toString())) {
+                assertEquals(expected, readAll(reader));
+            }
+        }
+    }
+
+    @Test
+    public void testPreferenceOverShortRange() throws IOException {
+        Path csv = Files.write(tempDir.resolve("far.csv"), "a,Ann,10,50\na,Bob,10,40000\n".getBytes(StandardCharsets.UTF_8));
+        IOException e = assertThrows(IOException.class,
+                () -> TraceConverter.convert(csv.toString(), tempDir.resolve("far.bin").toString(), false));
+        assertTrue(e.getMessage().contains("Command 2") && e.getMessage().contains("40000"), e.getMessage());
+
+        // Varint records hold any preference, so the converted trace replays like the CSV
+        Path varint = tempDir.resolve("far-varint.bin");
+        TraceConverter.convert(csv.toString(), varint.toString(), true);
+        ReservationEngine fromCsv = new ReservationEngine(new CowboySeatTree());
+        fromCsv.initialize();
+        fromCsv.replay(csv.toString());
+        ReservationEngine fromBinary = new ReservationEngine(new CowboySeatTree());
+        fromBinary.initialize();
+        fromBinary.replay(varint.toString());
+        assertEquals(fromCsv.getSeatTree().getReservation("Bob").getKey(), fromBinary.getSeatTree().getReservation("Bob").getKey());
+    }
+
+    @Test
+    public void testTruncatedAndForeignFilesAreRejected() throws IOException {
+        Path binary = tempDir.resolve("trace.bin");
+        TraceConverter.convert(TRACE, binary.toString(), false);
+
+        // Drop the name table and half of the records but keep the header's counts
+        byte[] bytes = Files.readAllBytes(binary);
+        byte[] truncated = new byte[BinaryTraceWriter.HEADER_SIZE + 100 * BinaryTraceWriter.RECORD_SIZE];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        Path cut = Files.write(tempDir.resolve("cut.bin"), truncated);
+        assertThrows(IOException.class, () -> new BinaryTraceReader(cut.toString()).close());
+
+        Path foreign = Files.write(tempDir.resolve("foreign.bin"), "not a trace".getBytes(StandardCharsets.US_ASCII));
+        IOException e = assertThrows(IOException.class, () -> new BinaryTraceReader(foreign.toString()).close());
+        assertTrue(e.getMessage().contains("Not a binary reservation trace"), e.getMessage());
+    }
+
+    @Test
+    public void testReplayFromBinaryTrace() throws IOException {
+        Path binary = tempDir.resolve("replay.bin");
+        TraceConverter.convert(TRACE, binary.toString(), true);
+
+        ReservationEngine fromCsv = new ReservationEngine(new CowboySeatTree());
+        fromCsv.initialize();
+        ReservationEngine.ReplayResult csvResult = fromCsv.replay(TRACE);
+        ReservationEngine fromBinary = new ReservationEngine(new CowboySeatTree());
+        fromBinary.initialize();
+        ReservationEngine.ReplayResult binaryResult = fromBinary.replay(binary.toString());
+
+        assertEquals(19_950, binaryResult.getOperationCount());
+        assertEquals(csvResult.getFailedReservations(), binaryResult.getFailedReservations());
+        assertEquals(csvResult.getFailedCancellations(), binaryResult.getFailedCancellations());
+        assertEquals(fromCsv.getSeatTree().getFreeBlockCount(), fromBinary.getSeatTree().getFreeBlockCount());
+        assertEquals(fromCsv.getSeatTree().getReservationCount(), fromBinary.getSeatTree().getReservationCount());
+        assertEquals(fromCsv.getSeatTree().getFreeSeatCount(), fromBinary.getSeatTree().getFreeSeatCount());
+    }
+}
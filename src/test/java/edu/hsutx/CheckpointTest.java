@@ -0,0 +1,220 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the Checkpoint class and checkpointed recovery in ReservationEngine.
+ */
+public class CheckpointTest {
+    private static final String TRACE = "data/reservations.csv";
+
+    private static final List<String[]> commands = new ArrayList<>();     // {op, name, seats, preference}
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void readTrace() throws IOException {
+        try (CsvTraceReader reader = new CsvTraceReader(TRACE)) {
+            ReservationCommand command = new ReservationCommand();
+            while (reader.next(command)) {
+                commands.add(new String[]{String.valueOf(command.getOp()), reader.getNames().getName(command.getNameId()),
+                        String.valueOf(command.getSeats()), String.valueOf(command.getPreference())});
+            }
+        }
+    }
+
+    // Applies trace commands [from, to) to an engine
+    private static void apply(ReservationEngine engine, int from, int to) {
+        for (String[] command : commands.subList(from, to)) {
+            if (command[0].charAt(0) == ReservationCommand.RESERVE) {
+                engine.reserve(command[1], Integer.parseInt(command[2]), Integer.parseInt(command[3]));
+            } else {
+                engine.cancel(command[1]);
+            }
+        }
+    }
+
+    private static ReservationEngine reference(int commandCount) {
+        ReservationEngine engine = new ReservationEngine(new CowboySeatTree());
+        engine.initialize();
+        apply(engine, 0, commandCount);
+        return engine;
+    }
+
+    private static List<String> blocks(CowboySeatTree tree) {
+        List<String> blocks = new ArrayList<>();
+        for (int i = 0; i < tree.getSize(); i++) {
+            SeatAssignment block = tree.select(i);
+            blocks.add(block.getKey() + ":" + block.getOwner());
+        }
+        return blocks;
+    }
+
+    // Compares the trees, then cancels every customer in both engines to compare who holds what
+    private static void assertSameState(ReservationEngine expected, ReservationEngine actual) {
+        assertEquals(blocks(expected.getSeatTree()), blocks(actual.getSeatTree()));
+        assertTrue(actual.getSeatTree().validateRedBlackTree());
+        Set<String> names = new LinkedHashSet<>();
+        for (String[] command : commands) {
+            names.add(command[1]);
+        }
+        for (String name : names) {
+            SeatAssignment expectedCancel = expected.cancel(name);
+            SeatAssignment actualCancel = actual.cancel(name);
+            assertEquals(expectedCancel == null ? null : expectedCancel.getKey(),
+                    actualCancel == null ? null : actualCancel.getKey(), name);
+        }
+    }
+
+    @Test
+    public void testRecoverFromCheckpointAndLogTail() throws Exception {
+        Path logPath = tempDir.resolve("venue.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            apply(engine, 0, 10_000);
+            engine.checkpoint().get();
+
+            assertTrue(Files.exists(ReservationEngine.checkpointPath(logPath)));
+            assertTrue(WriteAheadLog.archivedSegments(logPath).isEmpty(), "Covered log segments should be deleted.");
+            assertEquals(WriteAheadLog.HEADER_SIZE, Files.size(logPath), "The log should start over.");
+            apply(engine, 10_000, commands.size());
+        }
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            long replayed = recovered.getWriteAheadLog().getRecoveredChangeCount();
+            assertTrue(replayed > 9_000 && replayed <= commands.size() - 10_000,
+                    "Only the tail after the checkpoint should be replayed: " + replayed);
+            assertSameState(reference(commands.size()), recovered);
+        }
+    }
+
+    @Test
+    public void testWritersCarryOnDuringCheckpoints() throws Exception {
+        Path logPath = tempDir.resolve("busy.wal");
+        List<String> live;
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            apply(engine, 0, 5_000);
+            Thread writer = new Thread(() -> apply(engine, 5_000, commands.size()));
+            writer.start();
+            int checkpoints = 0;
+            while (writer.isAlive()) {
+                engine.checkpoint().get();
+                checkpoints++;
+            }
+            writer.join();
+            assertTrue(checkpoints > 1, "Checkpoints should have run alongside the writer.");
+            live = blocks(engine.getSeatTree());
+        }
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(live, blocks(recovered.getSeatTree()));
+            assertSameState(reference(commands.size()), recovered);
+        }
+    }
+
+    @Test
+    public void testUnfinishedCheckpointIsReplayedFromArchivedSegment() throws Exception {
+        Path logPath = tempDir.resolve("crash.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            apply(engine, 0, 5_000);
+            engine.checkpoint().get();
+            apply(engine, 5_000, 10_000);
+            // A crash after the log rolled but before the checkpoint was written
+            engine.getService().snapshotAndRollLog(tree -> { });
+            apply(engine, 10_000, 15_000);
+        }
+        assertEquals(1, WriteAheadLog.archivedSegments(logPath).size());
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(blocks(reference(15_000).getSeatTree()), blocks(recovered.getSeatTree()));
+            recovered.checkpoint().get();
+            assertTrue(WriteAheadLog.archivedSegments(logPath).isEmpty());
+            apply(recovered, 15_000, commands.size());
+        }
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertSameState(reference(commands.size()), recovered);
+        }
+    }
+
+    @Test
+    public void testOwnerNameLongerThanWriteBuffer() throws Exception {
+        Path logPath = tempDir.resolve("names.wal");
+        String longName = "x".repeat(100_000);     // more than the checkpoint's 64 KB buffer
+        List<String> live;
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            apply(engine, 0, 1_000);
+            assertNotNull(engine.reserve(longName, 3, 0));
+            apply(engine, 1_000, 2_000);
+            engine.checkpoint().get();
+            live = blocks(engine.getSeatTree());
+        }
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(0, recovered.getWriteAheadLog().getRecoveredChangeCount());
+            assertEquals(live, blocks(recovered.getSeatTree()));
+            assertNotNull(recovered.cancel(longName));
+        }
+    }
+
+    @Test
+    public void testFailedCheckpointIsReported() throws Exception {
+        Path logPath = tempDir.resolve("failing.wal");
+        Path checkpointPath = ReservationEngine.checkpointPath(logPath);
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            // A directory where the checkpoint should go, so it cannot be renamed into place
+            Files.createDirectory(checkpointPath);
+            Files.createFile(checkpointPath.resolve("in-the-way"));
+            apply(engine, 0, 5_000);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> engine.checkpoint().get());
+            assertInstanceOf(UncheckedIOException.class, e.getCause());
+            assertSame(e.getCause().getCause(), engine.getCheckpointFailure());
+
+            // The schedule carries on past failures and stops quietly when the engine is closed
+            engine.scheduleCheckpoints(Duration.ofMillis(1));
+            apply(engine, 5_000, 10_000);
+        }
+        assertFalse(WriteAheadLog.archivedSegments(logPath).isEmpty(), "Segments no checkpoint covers should be kept.");
+
+        Files.delete(checkpointPath.resolve("in-the-way"));
+        Files.delete(checkpointPath);
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(blocks(reference(10_000).getSeatTree()), blocks(recovered.getSeatTree()));
+            assertNull(recovered.getCheckpointFailure());
+        }
+    }
+
+    @Test
+    public void testCheckpointRestoreMatchesFullLogReplay() throws Exception {
+        Path logPath = tempDir.resolve("full.wal");
+        Path logOnly = tempDir.resolve("logonly.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            apply(engine, 0, commands.size());
+            Files.copy(logPath, logOnly, StandardCopyOption.REPLACE_EXISTING);
+            engine.checkpoint().get();
+        }
+
+        try (ReservationEngine fromCheckpoint = ReservationEngine.recover(logPath);
+             ReservationEngine fromLog = ReservationEngine.recover(logOnly)) {
+            assertEquals(0, fromCheckpoint.getWriteAheadLog().getRecoveredChangeCount(),
+                    "Nothing should be replayed after a checkpoint of everything.");
+            assertTrue(fromLog.getWriteAheadLog().getRecoveredChangeCount() > 0);
+            assertSameState(fromLog, fromCheckpoint);
+        }
+    }
+}
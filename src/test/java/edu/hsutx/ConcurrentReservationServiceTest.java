@@ -0,0 +1,163 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Multithreaded stress tests for the ConcurrentReservationService class.
+ */
+public class ConcurrentReservationServiceTest {
+
+    private static void collectBlocks(CowboySeatTree.Node node, List<SeatAssignment> blocks) {
+        if (node == null || node.isLeaf()) return;
+        collectBlocks(node.left, blocks);
+        blocks.add(node.value);
+        collectBlocks(node.right, blocks);
+    }
+
+    /**
+     * Runs the given number of box-office threads, each reserving and cancelling at random.
+     */
+    private static void runBoxOffices(ConcurrentReservationService service, int threads, int opsPerThread,
+                                        ConcurrentLinkedQueue<SeatAssignment> held) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(thread);
+                List<SeatAssignment> mine = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    if (mine.isEmpty() || random.nextInt(4) > 0) {
+                        SeatAssignment reservation = service.reserve("t" + thread + "-" + i, random.nextInt(20) + 1, random.nextInt(101));
+                        if (reservation != null) mine.add(reservation);
+                    } else {
+                        SeatAssignment reservation = mine.remove(random.nextInt(mine.size()));
+                        assertNotNull(service.release(reservation), "A reservation held by one thread can't vanish.");
+                    }
+                }
+                held.addAll(mine);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testNoSeatIsDoubleBooked() throws Exception {
+        CowboySeatTree tree = new CowboySeatTree();
+        ConcurrentReservationService service = new ConcurrentReservationService(tree);
+        service.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+        ConcurrentLinkedQueue<SeatAssignment> held = new ConcurrentLinkedQueue<>();
+
+        runBoxOffices(service, 16, 5_000, held);
+
+        assertTrue(tree.validateRedBlackTree());
+        assertEquals(held.size(), service.getReservationCount(), "Every reservation a thread holds should be in the tree.");
+        for (SeatAssignment reservation : held) {
+            assertSame(reservation, tree.getValue(reservation.getLongKey()));
+        }
+
+        // Blocks must tile the venue exactly: no overlaps and no lost seats
+        List<SeatAssignment> blocks = new ArrayList<>();
+        collectBlocks(tree.getRoot(), blocks);
+        blocks.sort(Comparator.comparingInt(SeatAssignment::getSeatStartIndex));
+        int nextSeat = 1;
+        for (SeatAssignment block : blocks) {
+            assertEquals(nextSeat, block.getSeatStartIndex(), "Blocks should neither overlap nor leave gaps.");
+            nextSeat += block.getSeatQuantity();
+        }
+        assertEquals(ReservationEngine.VENUE_SEATS + 1, nextSeat);
+    }
+
+    /**
+     * The tree stays valid from 1 to 32 threads. ConcurrentReservationBenchmark measures how the
+     * throughput scales over the same thread counts.
+     */
+    @Test
+    public void testOneTo32Threads() throws Exception {
+        int totalOps = 64_000;
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            CowboySeatTree tree = new CowboySeatTree();
+            ConcurrentReservationService service = new ConcurrentReservationService(tree);
+            service.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+            ConcurrentLinkedQueue<SeatAssignment> held = new ConcurrentLinkedQueue<>();
+
+            runBoxOffices(service, threads, totalOps / threads, held);
+            assertTrue(tree.validateRedBlackTree());
+            assertEquals(held.size(), service.getReservationCount(), threads + " threads");
+        }
+    }
+
+    @Test
+    public void testFailedWriteIsUndone() {
+        CowboySeatTree tree = new CowboySeatTree();
+        ConcurrentReservationService service = new ConcurrentReservationService(tree);
+        service.insert(new SeatAssignment(1000, 1));
+        service.enableSnapshots();
+        SeatAssignment first = service.reserve("Ann", 10, 0);
+        SeatAssignment bob = service.reserve("Bob", 20, 0);
+        PersistentRedBlackTree.Snapshot<SeatAssignment> before = service.snapshot();
+
+        assertThrows(IllegalStateException.class, () -> service.write(t -> {
+            t.reserve("Ann", 5, 0);
+            t.release(bob);
+            t.reserve("Cy", 50, 0);
+            throw new IllegalStateException("box office crashed");
+        }));
+
+        assertSame(before, service.snapshot(), "A failed change is not published.");
+        assertEquals(List.of(first), tree.getReservations("Ann"));
+        assertSame(first, tree.getReservation("Ann"), "Ann's current reservation is put back.");
+        assertSame(bob, tree.getReservation("Bob"), "Bob's cancelled block is his current reservation again.");
+        assertTrue(tree.getReservations("Cy").isEmpty());
+        assertEquals(970, tree.getFreeSeatCount());
+        assertEquals(1, tree.getFreeBlockCount());
+        assertTrue(tree.validateRedBlackTree());
+
+        assertEquals(31, service.reserve("Di", 5, 0).getSeatStartIndex(), "The next change starts from the undone tree.");
+    }
+
+    @Test
+    public void testReadersSeeConsistentCounts() throws Exception {
+        CowboySeatTree tree = new CowboySeatTree();
+        ConcurrentReservationService service = new ConcurrentReservationService(tree);
+        service.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readerPool = Executors.newSingleThreadExecutor();
+        Future<?> reader = readerPool.submit(() -> {
+            while (!done.get()) {
+                assertTrue(service.isAvailable(1));
+                int blocks = service.read(CowboySeatTree::getSize);
+                assertTrue(blocks >= 1);
+            }
+        });
+        runBoxOffices(service, 4, 5_000, new ConcurrentLinkedQueue<>());
+        done.set(true);
+        reader.get();   // rethrows any assertion the reader tripped
+        readerPool.shutdown();
+        assertTrue(service.getFreeBlockCount() >= 1);
+    }
+}
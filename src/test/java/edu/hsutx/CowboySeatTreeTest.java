@@ -0,0 +1,468 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the CowboySeatTree class.
+ */
+public class CowboySeatTreeTest {
+
+    private CowboySeatTree tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new CowboySeatTree();
+    }
+
+    /* ------------------ Free-Block Index Tests ------------------ */
+
+    @Test
+    public void testUnassignedBlockSkipsAssignedBlocks() {
+        tree.insert(new SeatAssignment("owner", 50, 1));
+        tree.insert(new SeatAssignment("other", 80, 51));
+        tree.insert(new SeatAssignment(60, 131));
+        tree.insert(new SeatAssignment(10, 191));
+
+        SeatAssignment block = tree.getUnassignedBlockOverThreshold(40);
+        assertNotNull(block, "A free block of at least 40 seats exists.");
+        assertEquals(131, block.getSeatStartIndex(), "Best fit should be the 60-seat free block.");
+        assertNull(tree.getUnassignedBlockOverThreshold(61), "No free block holds 61 seats.");
+    }
+
+    @Test
+    public void testUnassignedBlockIsBestFit() {
+        tree.insert(new SeatAssignment(100, 1));
+        tree.insert(new SeatAssignment(25, 101));
+        tree.insert(new SeatAssignment(30, 126));
+
+        assertEquals(25, tree.getUnassignedBlockOverThreshold(20).getSeatQuantity());
+        assertEquals(25, tree.getUnassignedBlockOverThreshold(25).getSeatQuantity());
+        assertEquals(30, tree.getUnassignedBlockOverThreshold(26).getSeatQuantity());
+        assertEquals(100, tree.getUnassignedBlockOverThreshold(31).getSeatQuantity());
+    }
+
+    @Test
+    public void testPreferenceOutOfRangeStaysInsideFreeBlock() {
+        tree.insert(new SeatAssignment(1000, 1));
+        tree.insert(new SeatAssignment("b", 50, 1001));
+
+        assertEquals(991, tree.reserve("a", 10, 101).getSeatStartIndex(), "Over 100 places the party at the end.");
+        assertEquals(1, tree.reserve("c", 10, -5).getSeatStartIndex(), "Below 0 places it at the start.");
+        List<SeatAssignment> batch = tree.reserveBatch(List.of(new CowboySeatTree.Request("d", 5, 250)));
+        assertEquals(986, batch.get(0).getSeatStartIndex());
+        assertEquals(975, tree.getFreeSeatCount());
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testDeleteRemovesFromIndexes() {
+        SeatAssignment free = new SeatAssignment(100, 1);
+        SeatAssignment owned = new SeatAssignment("owner", 5, 101);
+        tree.insert(free);
+        tree.insert(owned);
+        assertEquals(1, tree.getFreeBlockCount());
+        assertEquals(1, tree.getReservationCount());
+
+        tree.delete(free);
+        tree.delete(owned.getKey());
+
+        assertTrue(tree.isEmpty(), "Tree should be empty after deleting both blocks.");
+        assertEquals(0, tree.getFreeBlockCount());
+        assertEquals(0, tree.getReservationCount());
+        assertNull(tree.getUnassignedBlockOverThreshold(1));
+        assertNull(tree.getReservation("owner"));
+    }
+
+    @Test
+    public void testGetReservationByOwner() {
+        tree.insert(new SeatAssignment(100, 1));
+        tree.reserve("Ann", 4, 0);
+        tree.reserve("Anne", 2, 0);
+
+        assertEquals(1, tree.getReservation("Ann").getSeatStartIndex());
+        assertEquals(5, tree.getReservation("Anne").getSeatStartIndex());
+        assertNull(tree.getReservation("An"), "A name prefix should not match another owner.");
+    }
+
+    /* ------------------ Cancellation Tests ------------------ */
+
+    @Test
+    public void testReleaseMergesBothFreeNeighbors() {
+        tree.insert(new SeatAssignment(10, 1));
+        SeatAssignment booked = new SeatAssignment("owner", 5, 11);
+        tree.insert(booked);
+        tree.insert(new SeatAssignment(20, 16));
+
+        SeatAssignment merged = tree.release(booked);
+
+        assertEquals(1, merged.getSeatStartIndex());
+        assertEquals(35, merged.getSeatQuantity());
+        assertEquals(1, tree.getSize(), "The three blocks should collapse into one.");
+        assertEquals(1, tree.getFreeBlockCount());
+        assertEquals(0, tree.getReservationCount());
+        assertSame(merged, tree.getUnassignedBlockOverThreshold(35));
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testReleaseDoesNotMergeAssignedNeighbors() {
+        tree.insert(new SeatAssignment("left", 10, 1));
+        SeatAssignment booked = new SeatAssignment("owner", 5, 11);
+        tree.insert(booked);
+        tree.insert(new SeatAssignment(3, 17));     // free, but not adjacent (seat 16 is missing)
+
+        SeatAssignment merged = tree.release(booked);
+
+        assertEquals(11, merged.getSeatStartIndex());
+        assertEquals(5, merged.getSeatQuantity());
+        assertEquals(3, tree.getSize());
+        assertEquals(2, tree.getFreeBlockCount());
+    }
+
+    @Test
+    public void testReleaseUnknownReservation() {
+        tree.insert(new SeatAssignment(10, 1));
+        assertNull(tree.release(new SeatAssignment("owner", 5, 11)));
+        assertEquals(1, tree.getSize());
+    }
+
+    /* ------------------ Owner Index ------------------ */
+
+    @Test
+    public void testSecondBookingKeepsTheFirst() {
+        tree.insert(new SeatAssignment(100, 1));
+        SeatAssignment first = tree.reserve("Ann", 10, 0);
+        SeatAssignment second = tree.reserve("Ann", 5, 100);
+
+        assertEquals(List.of(first, second), tree.getReservations("Ann"));
+        assertSame(second, tree.getOwnerIndex().getCurrent("Ann"));
+        assertSame(second, tree.getReservation("Ann"));
+        assertSame(second, tree.cancel("Ann"), "Cancelling by name releases the latest booking.");
+        assertEquals(List.of(first), tree.getReservations("Ann"));
+        assertNull(tree.getReservation("Ann"), "The reservation is the one cancel would release.");
+        assertNull(tree.cancel("Ann"), "An earlier booking never becomes current again.");
+        assertEquals(1, tree.getReservationCount());
+    }
+
+    @Test
+    public void testReservationWithTakenKeyLeavesTreeAlone() {
+        // Overlapping blocks that a reservation would pack into the same key as "old"'s block
+        tree.insert(new SeatAssignment(20, 1));
+        tree.insert(new SeatAssignment("old", 5, 1));
+
+        assertNull(tree.reserve("newcomer", 5, 0));
+        assertNull(tree.reserve("old", 5, 0));
+        assertNull(tree.reserveBatch(List.of(new CowboySeatTree.Request("newcomer", 5, 0))).get(0));
+
+        assertEquals(20, tree.getFreeSeatCount(), "The free block is kept.");
+        assertEquals(1, tree.getFreeBlockCount());
+        assertTrue(tree.getReservations("newcomer").isEmpty());
+        assertNull(tree.getOwnerIndex().getCurrent("old"));
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testCancelAllReleasesEveryBlock() {
+        tree.insert(new SeatAssignment(100, 1));
+        tree.reserve("Ann", 10, 0);
+        tree.reserve("Bob", 20, 50);
+        tree.reserve("Ann", 5, 100);
+
+        List<SeatAssignment> cancelled = tree.cancelAll("Ann");
+
+        assertEquals(2, cancelled.size());
+        assertTrue(tree.getReservations("Ann").isEmpty());
+        assertNull(tree.getOwnerIndex().getCurrent("Ann"));
+        assertEquals(3, tree.getSize(), "Bob's block and the free seats on either side of it.");
+        assertEquals(80, tree.getFreeSeatCount());
+        assertTrue(tree.cancelAll("Ann").isEmpty());
+        assertTrue(tree.cancelAll("Nobody").isEmpty());
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testOwnerIndexGrowsPastInitialCapacity() {
+        int owners = 5_000;
+        tree.insert(new SeatAssignment(owners * 3, 1));
+        for (int i = 0; i < owners; i++) {
+            tree.reserve("owner" + i, 1, 0);
+            tree.reserve("owner" + i, 2, 0);
+        }
+        OwnerIndex index = tree.getOwnerIndex();
+        assertEquals(owners, index.getOwnerCount());
+        assertEquals(2 * owners, tree.getReservationCount());
+        assertEquals(owners, index.getCurrentReservations().size());
+        int id = index.getId("owner4321");
+        assertEquals("owner4321", index.getOwner(id));
+        assertEquals(2, index.getBlocks(id).size());
+        assertEquals(-1, index.getId("owner" + owners));
+    }
+
+    /* ------------------ Free-Block Index Size ------------------ */
+
+    /**
+     * The free-block index should hold only free blocks however many are sold, so best-fit lookups never
+     * have assigned blocks to skip. BestFitLookupBenchmark times the lookup as the sold blocks grow.
+     */
+    @Test
+    public void testFreeIndexIgnoresAssignedBlocks() {
+        CowboySeatTree seats = new CowboySeatTree();
+        SeatAssignment fits = new SeatAssignment(2, 9_999_999);   // the only free block that fits
+        seats.insert(fits);
+        for (int i = 0; i < 1_000; i++) {
+            seats.insert(new SeatAssignment(1, 9_000_000 + i));  // small fragments that do not fit
+        }
+
+        for (int assigned = 0; assigned < 500_000; assigned++) {
+            seats.insert(new SeatAssignment("owner" + assigned, 2, assigned * 2 + 1));
+            if (assigned % 100_000 == 0) {
+                assertSame(fits, seats.getUnassignedBlockOverThreshold(2));
+            }
+        }
+
+        assertEquals(1_001, seats.getFreeBlockCount());
+        assertEquals(500_000, seats.getReservationCount());
+        assertSame(fits, seats.getUnassignedBlockOverThreshold(2));
+        assertSame(fits, seats.findUnassignedBlockOverThreshold(2));
+        assertNull(seats.getUnassignedBlockOverThreshold(3));
+    }
+
+    /* ------------------ Batch Reservations ------------------ */
+
+    /**
+     * A batch should seat every party exactly where one-at-a-time reservations would, taken smallest first.
+     */
+    @Test
+    public void testReserveBatchMatchesSequentialReservations() {
+        CowboySeatTree sequential = new CowboySeatTree();
+        tree.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+        sequential.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+
+        Random random = new Random(9);
+        for (int round = 0; round < 20; round++) {
+            List<CowboySeatTree.Request> requests = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                requests.add(new CowboySeatTree.Request("r" + round + "-" + i, random.nextInt(3_000) + 1, random.nextInt(101)));
+            }
+            List<SeatAssignment> batch = tree.reserveBatch(requests);
+
+            List<CowboySeatTree.Request> smallestFirst = new ArrayList<>(requests);
+            smallestFirst.sort(Comparator.comparingInt(CowboySeatTree.Request::getSeatsNeeded));
+            for (CowboySeatTree.Request request : smallestFirst) {
+                SeatAssignment expected = sequential.reserve(request.getOwner(), request.getSeatsNeeded(), request.getPreference());
+                SeatAssignment actual = batch.get(requests.indexOf(request));
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.getLongKey(), actual.getLongKey());
+                    assertEquals(expected.getOwner(), actual.getOwner());
+                }
+            }
+        }
+
+        assertTrue(tree.validateRedBlackTree());
+        assertEquals(sequential.getSize(), tree.getSize());
+        assertEquals(sequential.getFreeBlockCount(), tree.getFreeBlockCount());
+        assertEquals(sequential.getFreeSeatCount(), tree.getFreeSeatCount());
+    }
+
+    /* ------------------ Subtree Aggregates ------------------ */
+
+    @Test
+    public void testFreeSeatTotalsAndPrunedSearch() {
+        tree.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+        assertEquals(ReservationEngine.VENUE_SEATS, tree.getFreeSeatCount());
+
+        Random random = new Random(5);
+        List<SeatAssignment> held = new ArrayList<>();
+        long reservedSeats = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (held.isEmpty() || random.nextInt(3) > 0) {
+                SeatAssignment reservation = tree.reserve("owner" + i, random.nextInt(100) + 1, random.nextInt(101));
+                if (reservation != null) {
+                    held.add(reservation);
+                    reservedSeats += reservation.getSeatQuantity();
+                }
+            } else {
+                SeatAssignment cancelled = held.remove(random.nextInt(held.size()));
+                tree.release(cancelled);
+                reservedSeats -= cancelled.getSeatQuantity();
+            }
+        }
+
+        assertEquals(ReservationEngine.VENUE_SEATS - reservedSeats, tree.getFreeSeatCount());
+        for (int threshold = 0; threshold <= 200; threshold++) {
+            SeatAssignment expected = tree.getUnassignedBlockOverThreshold(threshold);
+            assertSame(expected, tree.findUnassignedBlockOverThreshold(threshold), "threshold " + threshold);
+            assertEquals(expected != null, tree.hasUnassignedBlockOverThreshold(threshold));
+        }
+        assertFalse(tree.hasUnassignedBlockOverThreshold(ReservationEngine.VENUE_SEATS + 1));
+        assertNull(tree.findUnassignedBlockOverThreshold(ReservationEngine.VENUE_SEATS + 1));
+    }
+
+    /* ------------------ Bulk Load ------------------ */
+
+    /**
+     * A pre-sold arena of 1M blocks should bulk-load into a valid tree that behaves like one built by insert.
+     * BulkLoadBenchmark compares the time against inserting the blocks one at a time.
+     */
+    @Test
+    public void testBulkLoadMillionBlocks() {
+        int blocks = 1_000_000;
+        List<SeatAssignment> sorted = new ArrayList<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            // Blocks of one seat sort by start seat; odd blocks are sold
+            sorted.add(i % 2 == 0 ? new SeatAssignment(1, i + 1) : new SeatAssignment("owner" + i, 1, i + 1));
+        }
+
+        tree.bulkLoad(sorted.iterator());
+
+        assertTrue(tree.validateRedBlackTree());
+        assertEquals(blocks, tree.getSize());
+        assertEquals(blocks / 2, tree.getFreeBlockCount());
+        assertEquals(blocks / 2, tree.getReservationCount());
+        assertEquals(List.of(sorted.get(1)), tree.getReservations("owner1"));
+        assertSame(sorted.get(0), tree.getUnassignedBlockOverThreshold(1));
+
+        // Cancelling seat 2 should merge it with the free seats 1 and 3
+        SeatAssignment merged = tree.release(sorted.get(1));
+        assertEquals(3, merged.getSeatQuantity());
+        assertEquals(1, merged.getSeatStartIndex());
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    /* ------------------ Nearest Free Block ------------------ */
+
+    @Test
+    public void testNearestBlockMatchesLinearScan() {
+        // Reserve and cancel until the venue is in thousands of fragments
+        tree.insert(new SeatAssignment(1_000_000, 1));
+        Random random = new Random(5);
+        List<SeatAssignment> held = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            if (held.isEmpty() || random.nextInt(4) > 0) {
+                SeatAssignment reservation = tree.reserve("owner" + i, 1 + random.nextInt(60), random.nextInt(101));
+                if (reservation != null) {
+                    held.add(reservation);
+                }
+            } else {
+                tree.release(held.remove(random.nextInt(held.size())));
+            }
+        }
+        List<SeatAssignment> free = new ArrayList<>();
+        for (int i = 0; i < tree.getSize(); i++) {
+            if (tree.select(i).getOwner() == null) {
+                free.add(tree.select(i));
+            }
+        }
+        assertTrue(free.size() > 1_000, "The venue should be fragmented, not " + free.size() + " blocks.");
+
+        for (int i = 0; i < 500; i++) {
+            int seats = 1 + random.nextInt(150);
+            int target = 1 + random.nextInt(1_000_000);
+            long bestGap = Long.MAX_VALUE;
+            for (SeatAssignment block : free) {
+                int last = block.getSeatStartIndex() + block.getSeatQuantity() - 1;
+                long gap = target < block.getSeatStartIndex() ? block.getSeatStartIndex() - target : Math.max(0, target - last);
+                if (block.getSeatQuantity() >= seats) {
+                    bestGap = Math.min(bestGap, gap);
+                }
+            }
+            SeatAssignment nearest = tree.getNearestUnassignedBlock(seats, target);
+            assertNotNull(nearest);
+            assertTrue(nearest.getSeatQuantity() >= seats);
+            int last = nearest.getSeatStartIndex() + nearest.getSeatQuantity() - 1;
+            long gap = target < nearest.getSeatStartIndex() ? nearest.getSeatStartIndex() - target : Math.max(0, target - last);
+            assertEquals(bestGap, gap, seats + " seats near " + target);
+        }
+        assertNull(tree.getNearestUnassignedBlock((int) tree.getMaxWeight() + 1, 500_000));
+    }
+
+    @Test
+    public void testReserveNearCentersOnTarget() {
+        tree.insert(new SeatAssignment(1_000, 1));
+        SeatAssignment middle = tree.reserveNear("a", 10, 500);
+        assertEquals(495, middle.getSeatStartIndex(), "The party is centered on the seat it asked for.");
+        assertEquals(3, tree.getFreeBlockCount() + tree.getReservationCount());
+        assertEquals(1, tree.reserveNear("b", 10, 1).getSeatStartIndex(), "A party never starts before its block.");
+        assertEquals(991, tree.reserveNear("c", 10, 1_000).getSeatStartIndex());
+        // Seats 495-504 are taken, so a party asking for one of them sits against the nearer side
+        assertEquals(485, tree.reserveNear("d", 10, 498).getSeatStartIndex());
+        assertEquals(505, tree.reserveNear("e", 10, 503).getSeatStartIndex());
+    }
+
+    /* ------------------ Range Views and Streams ------------------ */
+
+    @Test
+    public void testFreeBlocksBetweenSeats() {
+        tree.insert(new SeatAssignment(10, 1));
+        tree.insert(new SeatAssignment("owner", 20, 11));
+        tree.insert(new SeatAssignment(5, 31));
+        tree.insert(new SeatAssignment(64, 36));
+        tree.insert(new SeatAssignment(100, 100));
+
+        List<Integer> starts = new ArrayList<>();
+        LongRedBlackTree<SeatAssignment>.Cursor cursor = tree.getFreeBlocksBetween(1, 100).cursor();
+        while (cursor.next()) {
+            starts.add(cursor.getValue().getSeatStartIndex());
+        }
+        assertEquals(List.of(1, 31, 36), starts, "Only free blocks starting in the range, in seat order.");
+        assertEquals(3, tree.getFreeBlocksBetween(2, 101).count());
+        assertTrue(tree.getFreeBlocksBetween(11, 31).isEmpty());
+    }
+
+    @Test
+    public void testParallelScanMatchesAggregates() {
+        tree.insert(new SeatAssignment(1_000_000, 1));
+        Random random = new Random(21);
+        for (int i = 0; i < 20_000; i++) {
+            tree.reserve("owner" + random.nextInt(5_000), 1 + random.nextInt(40), random.nextInt(101));
+        }
+        long freeSeats = tree.parallelStream()
+                .filter(block -> block.getOwner() == null)
+                .mapToLong(SeatAssignment::getSeatQuantity)
+                .sum();
+        assertEquals(tree.getFreeSeatCount(), freeSeats);
+        assertEquals(tree.getReservationCount(), tree.parallelStream().filter(block -> block.getOwner() != null).count());
+        assertEquals(tree.getSize(), tree.spliterator().getExactSizeIfKnown());
+    }
+
+    /* ------------------ Memory Footprint ------------------ */
+
+    /**
+     * With a pair of leaf objects per node each entry cost three Node objects; with the shared NIL sentinel
+     * every child link that ends the tree points at the same object, so each entry costs one.
+     */
+    @Test
+    public void testLeavesShareOneSentinel() {
+        int blocks = 200_000;
+        for (int i = 0; i < blocks; i++) {
+            tree.insert(new SeatAssignment(1, i * 2 + 1));
+        }
+        for (int i = 0; i < blocks; i += 3) {
+            tree.delete(SeatAssignment.toKey(1, i * 2 + 1));
+        }
+
+        // Walk until the sentinel; a leaf of its own would be counted as one more node
+        int nodes = 0;
+        List<CowboySeatTree.Node> stack = new ArrayList<>(List.of(tree.getRoot()));
+        while (!stack.isEmpty()) {
+            CowboySeatTree.Node node = stack.remove(stack.size() - 1);
+            if (node != tree.nil) {
+                nodes++;
+                stack.add(node.left);
+                stack.add(node.right);
+            }
+        }
+        assertEquals(tree.getSize(), nodes, "Each entry should cost a single Node, not a Node plus two leaves.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+}
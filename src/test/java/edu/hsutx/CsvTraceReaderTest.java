@@ -0,0 +1,116 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the CsvTraceReader and NameTable classes.
+ */
+public class CsvTraceReaderTest {
+    private static final String TRACE = "data/reservations.csv";
+
+    @TempDir
+    Path tempDir;
+
+    // Reads every command back as "op,name[,seats,preference]" so traces can be compared line by line
+    private static List<String> readAll(TraceReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        ReservationCommand command = new ReservationCommand();
+        while (reader.next(command)) {
+            String name = reader.getNames().getName(command.getNameId());
+            lines.add(command.getOp() == ReservationCommand.RESERVE
+                    ? "a," + name + "," + command.getSeats() + "," + command.getPreference()
+                    : "d," + name);
+        }
+        return lines;
+    }
+
+    private Path write(String name, byte[] bom, String text, Charset charset) throws IOException {
+        byte[] body = text.getBytes(charset);
+        byte[] bytes = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(body, 0, bytes, bom.length, body.length);
+        return Files.write(tempDir.resolve(name), bytes);
+    }
+
+    @Test
+    public void testMatchesLineByLineParseOfBundledTrace() throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(TRACE), StandardCharsets.UTF_16))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                expected.add(line);
+            }
+        }
+
+        try (CsvTraceReader reader = new CsvTraceReader(TRACE)) {
+            assertEquals(expected, readAll(reader));
+        }
+        // A window far smaller than the file forces many remaps, some in the middle of a line
+        try (CsvTraceReader reader = new CsvTraceReader(Path.of(TRACE), new NameTable(), 4_001)) {
+            assertEquals(expected, readAll(reader));
+        }
+    }
+
+    @Test
+    public void testEncodingsAndLineEndings() throws IOException {
+        String text = "a,Zo\u00eb \u00c5ngstr\u00f6m,12,50\r\nd,Zo\u00eb \u00c5ngstr\u00f6m\r\n\r\na,\uD83E\uDD20 Cowboy,3,0\nd,\uD83E\uDD20 Cowboy";
+        List<String> expected = List.of("a,Zo\u00eb \u00c5ngstr\u00f6m,12,50", "d,Zo\u00eb \u00c5ngstr\u00f6m", "a,\uD83E\uDD20 Cowboy,3,0", "d,\uD83E\uDD20 Cowboy");
+
+        Path[] files = {
+                write("utf8.csv", new byte[0], text, StandardCharsets.UTF_8),
+                write("utf8bom.csv", new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, text, StandardCharsets.UTF_8),
+                write("utf16le.csv", new byte[]{(byte) 0xFF, (byte) 0xFE}, text, StandardCharsets.UTF_16LE),
+                write("utf16be.csv", new byte[]{(byte) 0xFE, (byte) 0xFF}, text, StandardCharsets.UTF_16BE),
+        };
+        for (Path file : files) {
+            for (int window : new int[]{CsvTraceReader.DEFAULT_WINDOW_SIZE, 64, 47}) {
+                try (CsvTraceReader reader = new CsvTraceReader(file, new NameTable(), window)) {
+                    assertEquals(expected, readAll(reader), file + " with a " + window + " byte window");
+                    assertEquals(2, reader.getNames().size(), "Each name should be interned once.");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedLinesAreRejected() throws IOException {
+        String[] bad = {"x,Name\n", "a,Name,5\n", "a,Name,five,5\n", "d,Name,5\n", "a,Name,5,5,5\n"};
+        for (int i = 0; i < bad.length; i++) {
+            Path file = write("bad" + i + ".csv", new byte[0], "a,Fine,1,1\n" + bad[i], StandardCharsets.UTF_8);
+            try (CsvTraceReader reader = new CsvTraceReader(file.toString())) {
+                IOException e = assertThrows(IOException.class, () -> readAll(reader), bad[i]);
+                assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testNameTableInterning() {
+        NameTable names = new NameTable();
+        char[] chars = "Lon Upton".toCharArray();
+        int id = names.intern(chars, chars.length);
+        assertEquals(id, names.intern("Lon Upton"));
+        assertEquals(id, names.intern(chars, chars.length));
+        assertNotEquals(id, names.intern(chars, 3));
+        assertEquals("Lon", names.getName(names.intern("Lon")));
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i + 2, names.intern("name" + i));     // grows past the initial table
+        }
+        assertEquals(10_002, names.size());
+        assertEquals("name9999", names.getName(10_001));
+    }
+}
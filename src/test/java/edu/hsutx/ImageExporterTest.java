@@ -0,0 +1,100 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the ImageExporter class.
+ */
+public class ImageExporterTest {
+    private static final int SIZE = SwingView.STADIUM_SIZE;
+
+    @TempDir
+    Path tempDir;
+
+    private static int[] frame(int seed) {
+        int[] pixels = new int[SIZE * SIZE];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (i * 31 + seed * 7919) & 0xFFFFFF;
+        }
+        return pixels;
+    }
+
+    private static int[] readRaw(Path path) throws IOException {
+        int[] pixels = new int[SIZE * SIZE];
+        ByteBuffer.wrap(Files.readAllBytes(path)).asIntBuffer().get(pixels);
+        return pixels;
+    }
+
+    @Test
+    public void testRawAndPngHoldTheOfferedPixels() throws IOException {
+        int[] pixels = frame(1);
+        Path raw = tempDir.resolve("stadium.raw");
+        try (ImageExporter exporter = new ImageExporter(raw, ImageExporter.Format.RAW, Duration.ZERO, SIZE, SIZE)) {
+            assertTrue(exporter.offer(pixels));
+            Arrays.fill(pixels, 0);     // drawing carries on; the exporter has its own copy
+        }
+        assertEquals(4L * SIZE * SIZE, Files.size(raw));
+        assertArrayEquals(frame(1), readRaw(raw));
+
+        Path png = tempDir.resolve("stadium.png");
+        try (ImageExporter exporter = new ImageExporter(png, ImageExporter.Format.PNG, Duration.ZERO, SIZE, SIZE)) {
+            exporter.offer(frame(2));
+        }
+        BufferedImage image = ImageIO.read(png.toFile());
+        int[] expected = frame(2);
+        for (int i = 0; i < expected.length; i += 997) {
+            assertEquals(expected[i], image.getRGB(i % SIZE, i / SIZE) & 0xFFFFFF);
+        }
+        assertFalse(Files.exists(tempDir.resolve("stadium.png.tmp")));
+    }
+
+    @Test
+    public void testOffersWithinIntervalAreSkipped() {
+        Path raw = tempDir.resolve("throttled.raw");
+        int[] pixels = frame(3);
+        try (ImageExporter exporter = new ImageExporter(raw, ImageExporter.Format.RAW, Duration.ofHours(1), SIZE, SIZE)) {
+            assertTrue(exporter.offer(pixels), "The first frame is always taken.");
+            for (int i = 0; i < 100; i++) {
+                assertFalse(exporter.offer(pixels));
+            }
+            exporter.close();
+            assertEquals(1, exporter.getWrittenCount());
+        }
+    }
+
+    @Test
+    public void testSlowWriterDropsFramesButWritesTheNewest() throws IOException {
+        Path png = tempDir.resolve("busy.png");
+        int offers = 200;
+        long written;
+        long dropped;
+        try (ImageExporter exporter = new ImageExporter(png, ImageExporter.Format.PNG, Duration.ZERO, SIZE, SIZE)) {
+            int[] pixels = new int[SIZE * SIZE];
+            for (int i = 0; i < offers; i++) {
+                Arrays.fill(pixels, i);     // encoding a PNG takes far longer than one offer
+                exporter.offer(pixels);
+            }
+            exporter.close();
+            written = exporter.getWrittenCount();
+            dropped = exporter.getDroppedCount();
+            assertNull(exporter.getFailure());
+        }
+        assertEquals(offers, written + dropped);
+        assertTrue(dropped > 0, "A writer slower than the offers should drop frames.");
+        assertEquals(offers - 1, ImageIO.read(png.toFile()).getRGB(17, 17) & 0xFFFFFF,
+                "The last frame offered should be the one on disk.");
+    }
+}
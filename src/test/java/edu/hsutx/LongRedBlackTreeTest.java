@@ -0,0 +1,329 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the LongRedBlackTree class.
+ */
+public class LongRedBlackTreeTest {
+
+    private LongRedBlackTree<Integer> tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new LongRedBlackTree<>();
+    }
+
+    @Test
+    public void testInsertAndGetValue() {
+        tree.insert(50, 1);
+        tree.insert(20, 2);
+        tree.insert(80, 3);
+
+        assertTrue(tree.validateRedBlackTree(), "Tree should be valid after insertions.");
+        assertEquals(3, tree.getSize());
+        assertEquals(1, tree.getValue(50));
+        assertEquals(2, tree.getValue(20));
+        assertEquals(3, tree.getValue(80));
+        assertNull(tree.getValue(30), "Value of nonexistent key should be null.");
+    }
+
+    @Test
+    public void testInsertDuplicateKey() {
+        tree.insert(7, 100);
+        tree.insert(7, 200);
+
+        assertEquals(1, tree.getSize());
+        assertEquals(100, tree.getValue(7), "Value should remain unchanged when inserting duplicate key.");
+    }
+
+    @Test
+    public void testDeleteToEmpty() {
+        tree.insert(1, 1);
+        tree.insert(2, 2);
+        tree.delete(1);
+        tree.delete(2);
+        tree.delete(3);
+
+        assertTrue(tree.isEmpty(), "Tree should be empty after deleting all nodes.");
+        assertEquals(0, tree.getSize());
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testCeiling() {
+        tree.insert(10, 1);
+        tree.insert(20, 2);
+        tree.insert(30, 3);
+
+        assertEquals(1, tree.getCeilingValue(5));
+        assertEquals(2, tree.getCeilingValue(20));
+        assertEquals(3, tree.getCeilingValue(21));
+        assertNull(tree.getCeilingValue(31));
+    }
+
+    @Test
+    public void testRandomOperationsStayValid() {
+        Random random = new Random(42);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) > 0) {
+                tree.insert(key, i);
+                expected.putIfAbsent(key, i);
+            } else {
+                tree.delete(key);
+                expected.remove(key);
+            }
+            if (i % 500 == 0) {
+                assertTrue(tree.validateRedBlackTree(), "Tree should stay valid after operation " + i);
+            }
+        }
+
+        assertEquals(expected.size(), tree.getSize());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.get(key), tree.getValue(key));
+            Long ceiling = expected.ceilingKey(key);
+            assertEquals(ceiling == null ? null : expected.get(ceiling), tree.getCeilingValue(key));
+            Long floor = expected.floorKey(key);
+            assertEquals(floor == null ? null : expected.get(floor), tree.getFloorValue(key));
+        }
+    }
+
+    @Test
+    public void testBulkLoadBuildsValidTree() {
+        for (int n = 0; n <= 300; n++) {
+            List<Long> keys = new ArrayList<>();
+            for (long k = 0; k < n; k++) {
+                keys.add(k * 3);
+            }
+            LongRedBlackTree<Long> loaded = new LongRedBlackTree<>();
+            loaded.bulkLoad(keys.iterator(), Long::longValue);
+
+            assertTrue(loaded.validateRedBlackTree(), "Bulk-loaded tree of " + n + " keys should be valid");
+            assertEquals(n, loaded.getSize());
+            for (long k = 0; k < n; k++) {
+                assertEquals(k * 3, loaded.getValue(k * 3));
+                assertNull(loaded.getValue(k * 3 + 1));
+            }
+            // The loaded tree must keep working as an ordinary tree
+            loaded.insert(1, 1L);
+            loaded.delete(0);
+            assertTrue(loaded.validateRedBlackTree());
+        }
+    }
+
+    @Test
+    public void testBulkLoadRejectsUnsortedInputAndNonEmptyTree() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.bulkLoad(List.of(1, 3, 2).iterator(), Integer::longValue));
+        tree.insert(5, 5);
+        assertThrows(IllegalStateException.class,
+                () -> tree.bulkLoad(List.of(1, 2).iterator(), Integer::longValue));
+    }
+
+    /**
+     * A tree that weighs each value as itself, so the aggregates can be checked against a TreeMap.
+     */
+    private static class WeightedTree extends LongRedBlackTree<Integer> {
+        @Override
+        protected long weightOf(Integer value) {
+            return value;
+        }
+
+        // Returns the subtree size after checking that every stored aggregate matches a recount
+        int checkAggregates(Node node) {
+            if (node == nil) {
+                return 0;
+            }
+            int size = 1 + checkAggregates(node.left) + checkAggregates(node.right);
+            assertEquals(size, node.subtreeSize);
+            assertEquals(Math.max(node.value, Math.max(node.left.maxWeight, node.right.maxWeight)), node.maxWeight);
+            assertEquals(node.value + node.left.totalWeight + node.right.totalWeight, node.totalWeight);
+            return size;
+        }
+    }
+
+    @Test
+    public void testAggregatesRankAndSelect() {
+        WeightedTree weighted = new WeightedTree();
+        Random random = new Random(3);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) > 0) {
+                int weight = random.nextInt(1_000);
+                weighted.insert(key, weight);
+                expected.putIfAbsent(key, weight);
+            } else {
+                weighted.delete(key);
+                expected.remove(key);
+            }
+            if (i % 500 == 0 && weighted.root != null) {
+                weighted.checkAggregates(weighted.root);
+            }
+        }
+
+        assertEquals(expected.values().stream().mapToLong(Integer::longValue).sum(), weighted.getTotalWeight());
+        assertEquals(expected.values().stream().mapToInt(Integer::intValue).max().orElse(0), weighted.getMaxWeight());
+        List<Long> keys = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, weighted.rank(keys.get(i)));
+            assertEquals(expected.get(keys.get(i)), weighted.select(i));
+        }
+        assertEquals(expected.headMap(1_000L).size(), weighted.rank(1_000));
+        assertNull(weighted.select(keys.size()));
+        for (int threshold = 0; threshold <= 1_000; threshold += 50) {
+            Integer first = null;
+            for (Integer value : expected.values()) {
+                if (value >= threshold) {
+                    first = value;
+                    break;
+                }
+            }
+            assertEquals(first, weighted.getFirstValueWithWeightAtLeast(threshold));
+        }
+    }
+
+    @Test
+    public void testBoundedWeightSearchesMatchTreeMap() {
+        WeightedTree weighted = new WeightedTree();
+        Random random = new Random(11);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long key = random.nextInt(10_000);
+            int weight = random.nextInt(100) < 95 ? random.nextInt(50) : random.nextInt(1_000);   // mostly light
+            weighted.insert(key, weight);
+            expected.putIfAbsent(key, weight);
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            long key = random.nextInt(10_200) - 100;
+            int threshold = random.nextInt(1_000);
+            Integer first = expected.tailMap(key, true).values().stream().filter(v -> v >= threshold).findFirst().orElse(null);
+            Integer last = expected.headMap(key, true).descendingMap().values().stream().filter(v -> v >= threshold).findFirst().orElse(null);
+            assertEquals(first, weighted.getFirstValueWithWeightAtLeast(key, threshold), "first from " + key + " over " + threshold);
+            assertEquals(last, weighted.getLastValueWithWeightAtLeast(key, threshold), "last to " + key + " over " + threshold);
+        }
+        assertNull(new WeightedTree().getLastValueWithWeightAtLeast(5, 0));
+    }
+
+    @Test
+    public void testCursorAndSubMapMatchTreeMap() {
+        Random random = new Random(13);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long key = random.nextInt(8_000);
+            if (random.nextInt(4) > 0) {
+                tree.insert(key, i);
+                expected.putIfAbsent(key, i);
+            } else {
+                tree.delete(key);
+                expected.remove(key);
+            }
+        }
+        List<Integer> all = new ArrayList<>();
+        for (Integer value : tree) {
+            all.add(value);
+        }
+        assertEquals(new ArrayList<>(expected.values()), all);
+
+        LongRedBlackTree<Integer>.Cursor cursor = tree.cursor();
+        for (int i = 0; i < 200; i++) {
+            long from = random.nextInt(8_200) - 100;
+            long to = from + random.nextInt(1_000) - 100;     // sometimes an empty range
+            List<Long> keys = new ArrayList<>();
+            cursor.reset(from, to);
+            while (cursor.next()) {
+                keys.add(cursor.getKey());
+            }
+            List<Long> expectedKeys = from < to ? new ArrayList<>(expected.subMap(from, to).keySet()) : List.of();
+            assertEquals(expectedKeys, keys, from + " to " + to);
+
+            LongRedBlackTree<Integer>.SubMap view = tree.subMap(from, to);
+            assertEquals(keys.size(), view.count());
+            assertEquals(keys.isEmpty() ? null : expected.get(keys.get(0)), view.getFirstValue());
+            assertEquals(keys.isEmpty() ? null : expected.get(keys.get(keys.size() - 1)), view.getLastValue());
+        }
+    }
+
+    // Splits a spliterator up to depth times over, keeping the parts in order
+    private static <E> void splitAll(Spliterator<E> spliterator, List<Spliterator<E>> parts, int depth) {
+        Spliterator<E> prefix = depth > 0 ? spliterator.trySplit() : null;
+        if (prefix == null) {
+            parts.add(spliterator);
+        } else {
+            splitAll(prefix, parts, depth - 1);
+            splitAll(spliterator, parts, depth - 1);
+        }
+    }
+
+    @Test
+    public void testSpliteratorSplitsExactly() {
+        for (int n : new int[] {0, 1, 2, 3, 10, 1_000, 4_321}) {
+            LongRedBlackTree<Integer> sized = new LongRedBlackTree<>();
+            Random random = new Random(n);
+            TreeMap<Long, Integer> expected = new TreeMap<>();
+            while (expected.size() < n) {
+                long key = random.nextInt(100_000);
+                sized.insert(key, (int) key);
+                expected.putIfAbsent(key, (int) key);
+            }
+
+            List<Spliterator<Integer>> parts = new ArrayList<>();
+            splitAll(sized.spliterator(), parts, 6);
+            List<Integer> values = new ArrayList<>();
+            for (Spliterator<Integer> part : parts) {
+                assertTrue(part.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+                long estimate = part.estimateSize();
+                int before = values.size();
+                if (part.tryAdvance(values::add)) {
+                    assertEquals(estimate - 1, part.estimateSize());
+                }
+                part.forEachRemaining(values::add);
+                assertEquals(estimate, values.size() - before, "Every part's size is exact.");
+                assertEquals(0, part.estimateSize());
+            }
+            assertEquals(new ArrayList<>(expected.values()), values, n + " values, in order, once each");
+            if (n >= 1_000) {
+                assertTrue(parts.size() >= 32, "A balanced tree splits deeply, not " + parts.size() + " parts.");
+            }
+        }
+    }
+
+    @Test
+    public void testParallelStreamMatchesSequential() {
+        for (long key = 0; key < 200_000; key++) {
+            tree.insert(key * 7 % 200_003, (int) key);
+        }
+        assertEquals(tree.stream().mapToLong(Integer::longValue).sum(), tree.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(tree.stream().collect(Collectors.toList()), tree.parallelStream().collect(Collectors.toList()),
+                "An ordered parallel stream keeps key order.");
+    }
+
+    @Test
+    public void testBulkLoadComputesAggregates() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            values.add(i);
+        }
+        WeightedTree weighted = new WeightedTree();
+        weighted.bulkLoad(values, Integer::longValue);
+        weighted.checkAggregates(weighted.root);
+        assertEquals(999L * 1_000 / 2, weighted.getTotalWeight());
+        assertEquals(500, weighted.select(500));
+        assertEquals(250, weighted.rank(250));
+    }
+}
@@ -0,0 +1,153 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PersistentRedBlackTree class and the snapshots CowboySeatTree publishes with it.
+ */
+public class PersistentRedBlackTreeTest {
+
+    private PersistentRedBlackTree<Integer> tree;
+
+    @BeforeEach
+    public void setUp() {
+        tree = new PersistentRedBlackTree<>();
+    }
+
+    private static <E> void collectKeys(PersistentRedBlackTree.Node<E> node, List<Long> keys) {
+        if (node == null) return;
+        collectKeys(node.left, keys);
+        keys.add(node.key);
+        collectKeys(node.right, keys);
+    }
+
+    // Counts the levels the slow way, to check the height each node carries
+    private static int height(PersistentRedBlackTree.Node<?> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    @Test
+    public void testInsertDeleteAndGetValue() {
+        tree.insert(20, 1);
+        tree.insert(10, 2);
+        tree.insert(30, 3);
+        tree.insert(10, 99);    // duplicate is ignored
+
+        assertEquals(3, tree.getSize());
+        assertEquals(2, tree.getValue(10));
+        assertEquals(3, tree.getValue(30));
+
+        tree.delete(20);
+        tree.delete(40);        // absent key is ignored
+        assertEquals(2, tree.getSize());
+        assertNull(tree.getValue(20));
+        assertTrue(tree.snapshot().validateRedBlackTree());
+
+        tree.delete(10);
+        tree.delete(30);
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void testValidateDegenerateChainWithoutRecursion() {
+        // A 200,000-node chain leaning right, built from the bottom up, which no valid tree has
+        PersistentRedBlackTree.Node<Integer> chain = null;
+        for (int i = 199_999; i >= 0; i--) {
+            chain = new PersistentRedBlackTree.Node<>(false, null, i, i, chain);
+        }
+        assertFalse(new PersistentRedBlackTree.Snapshot<>(chain).validateRedBlackTree(),
+                "The chain breaks the black-count rule.");
+    }
+
+    @Test
+    public void testRandomOperationsStayValid() {
+        Random random = new Random(7);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                tree.insert(key, i);
+                expected.putIfAbsent(key, i);
+            } else {
+                tree.delete(key);
+                expected.remove(key);
+            }
+            if (i % 500 == 0) {
+                PersistentRedBlackTree.Snapshot<Integer> snapshot = tree.snapshot();
+                assertTrue(snapshot.validateRedBlackTree(), "Tree should be valid after operation " + i);
+                assertEquals(height(snapshot.getRoot()), PersistentRedBlackTree.heightOf(snapshot.getRoot()));
+                long probe = random.nextInt(2_100);
+                Map.Entry<Long, Integer> ceiling = expected.ceilingEntry(probe);
+                assertEquals(ceiling == null ? null : ceiling.getValue(), snapshot.getCeilingValue(probe));
+            }
+        }
+
+        List<Long> keys = new ArrayList<>();
+        collectKeys(tree.snapshot().getRoot(), keys);
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+        assertEquals(expected.size(), tree.getSize());
+    }
+
+    @Test
+    public void testSnapshotIsUnchangedByLaterWrites() {
+        for (long key = 0; key < 100; key++) {
+            tree.insert(key, (int) key);
+        }
+        PersistentRedBlackTree.Snapshot<Integer> before = tree.snapshot();
+
+        for (long key = 0; key < 100; key += 2) {
+            tree.delete(key);
+        }
+        tree.insert(500, 500);
+
+        assertEquals(100, before.getSize());
+        assertEquals(0, before.getValue(0));
+        assertNull(before.getValue(500));
+        assertTrue(before.validateRedBlackTree());
+        assertEquals(51, tree.getSize());
+        assertNull(tree.getValue(0));
+    }
+
+    @Test
+    public void testCowboySeatTreeSnapshotsMatchTree() {
+        CowboySeatTree seatTree = new CowboySeatTree();
+        seatTree.insert(new SeatAssignment(ReservationEngine.VENUE_SEATS, 1));
+        assertNull(seatTree.getSnapshot(), "Snapshots are off until enabled.");
+        seatTree.enableSnapshots();
+
+        Random random = new Random(11);
+        List<SeatAssignment> held = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            if (held.isEmpty() || random.nextInt(3) > 0) {
+                SeatAssignment reservation = seatTree.reserve("owner" + i, random.nextInt(50) + 1, random.nextInt(101));
+                if (reservation != null) held.add(reservation);
+            } else {
+                seatTree.release(held.remove(random.nextInt(held.size())));
+            }
+        }
+
+        PersistentRedBlackTree.Snapshot<SeatAssignment> blocks = seatTree.getSnapshot();
+        PersistentRedBlackTree.Snapshot<SeatAssignment> free = seatTree.getFreeSnapshot();
+        assertTrue(blocks.validateRedBlackTree());
+        assertTrue(free.validateRedBlackTree());
+        assertEquals(seatTree.getSize(), blocks.getSize());
+        assertEquals(seatTree.getFreeBlockCount(), free.getSize());
+        for (SeatAssignment reservation : held) {
+            assertSame(reservation, blocks.getValue(reservation.getLongKey()));
+            assertNull(free.getValue(reservation.getLongKey()));
+        }
+        for (int threshold = 1; threshold <= 60; threshold++) {
+            assertSame(seatTree.getUnassignedBlockOverThreshold(threshold),
+                    free.getCeilingValue(SeatAssignment.toKey(threshold, 0)));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the PlacementStrategy implementations and the placement report.
+ */
+public class PlacementStrategyTest {
+
+    // Leaves free blocks of 50 seats at 1, 10 seats at 61 and 920 seats at 81 in a 1000-seat venue
+    private static PlacementStrategy fragmented(IntFunction<PlacementStrategy> factory) {
+        PlacementStrategy strategy = factory.apply(1000);
+        SeatAssignment a = strategy.reserve("a", 50, 0);
+        strategy.reserve("b", 10, 0);
+        SeatAssignment c = strategy.reserve("c", 10, 0);
+        strategy.reserve("d", 10, 0);
+        strategy.release(a);
+        strategy.release(c);
+        return strategy;
+    }
+
+    @Test
+    public void testFitsPickDifferentBlocks() {
+        assertEquals(61, fragmented(PlacementStrategy::bestFit).reserve("e", 8, 0).getSeatStartIndex(),
+                "Best fit takes the smallest block that fits.");
+        assertEquals(1, fragmented(PlacementStrategy::firstFit).reserve("e", 8, 0).getSeatStartIndex(),
+                "First fit takes the lowest seats that fit.");
+        assertEquals(81, fragmented(PlacementStrategy::worstFit).reserve("e", 8, 0).getSeatStartIndex(),
+                "Worst fit takes the largest block.");
+
+        assertEquals(1, fragmented(PlacementStrategy::firstFit).reserve("e", 20, 0).getSeatStartIndex(),
+                "First fit skips blocks that are too small.");
+        assertEquals(81, fragmented(PlacementStrategy::firstFit).reserve("e", 60, 0).getSeatStartIndex());
+        assertNull(fragmented(PlacementStrategy::worstFit).reserve("e", 921, 0));
+    }
+
+    @Test
+    public void testBuddyRoundsUpAndCoalesces() {
+        BuddyPlacement buddy = new BuddyPlacement(1000);
+        int initialBlocks = buddy.getFreeBlockCount();
+        assertEquals(1000, buddy.getFreeSeatCount());
+        assertEquals(512, buddy.getLargestFreeBlock());
+
+        // 1000 seats split into aligned blocks of 512, 256, 128, 64, 32 and 8; the 8 at seat 993 is split first
+        SeatAssignment three = buddy.reserve("a", 3, 0);
+        assertEquals(993, three.getSeatStartIndex(), "The smallest block that fits is split.");
+        assertEquals(1, buddy.getWastedSeatCount(), "Three seats take a four-seat block.");
+        SeatAssignment back = buddy.reserve("b", 3, 100);
+        assertEquals(998, back.getSeatStartIndex(), "The preference places the party at the end of its block.");
+        assertEquals(1000 - 8, buddy.getFreeSeatCount());
+
+        assertEquals(new SeatAssignment(4, 993).getLongKey(), buddy.release(three).getLongKey(),
+                "The buddy is still held, so the block does not coalesce.");
+        assertNull(buddy.release(three), "A released reservation is not held any more.");
+        assertEquals(new SeatAssignment(8, 993).getLongKey(), buddy.release(back).getLongKey(),
+                "Both halves free coalesce, up to the end of the venue.");
+        assertEquals(initialBlocks, buddy.getFreeBlockCount());
+        assertEquals(0, buddy.getWastedSeatCount());
+
+        assertNull(buddy.reserve("c", 513, 0), "No block is larger than 512 seats.");
+    }
+
+    @Test
+    public void testRandomWorkloadKeepsSeatsConsistent() {
+        for (IntFunction<PlacementStrategy> factory : PlacementReport.STRATEGIES) {
+            PlacementStrategy strategy = factory.apply(100_000);
+            int initialBlocks = strategy.getFreeBlockCount();
+            Random random = new Random(7);
+            List<SeatAssignment> held = new ArrayList<>();
+            for (int i = 0; i < 20_000; i++) {
+                if (held.isEmpty() || random.nextInt(3) > 0) {
+                    SeatAssignment reservation = strategy.reserve("owner" + i, 1 + random.nextInt(200), random.nextInt(101));
+                    if (reservation != null) {
+                        held.add(reservation);
+                    }
+                } else {
+                    assertNotNull(strategy.release(held.remove(random.nextInt(held.size()))));
+                }
+            }
+
+            held.sort(Comparator.comparingInt(SeatAssignment::getSeatStartIndex));
+            long reservedSeats = 0;
+            int end = 1;
+            for (SeatAssignment reservation : held) {
+                assertTrue(reservation.getSeatStartIndex() >= end, strategy.getName() + " overlapped " + reservation);
+                end = reservation.getSeatStartIndex() + reservation.getSeatQuantity();
+                reservedSeats += reservation.getSeatQuantity();
+            }
+            assertTrue(end <= 100_001, strategy.getName() + " seated a party past the last seat");
+            long wasted = strategy instanceof BuddyPlacement ? ((BuddyPlacement) strategy).getWastedSeatCount() : 0;
+            assertEquals(100_000, strategy.getFreeSeatCount() + reservedSeats + wasted, strategy.getName());
+
+            for (SeatAssignment reservation : held) {
+                strategy.release(reservation);
+            }
+            assertEquals(100_000, strategy.getFreeSeatCount(), strategy.getName());
+            assertEquals(initialBlocks, strategy.getFreeBlockCount(), strategy.getName() + " left fragments behind");
+        }
+    }
+
+    @Test
+    public void testReportOnBundledTrace() throws IOException {
+        PlacementReport.Trace trace;
+        try (TraceReader reader = TraceReader.open("data/reservations.csv")) {
+            trace = new PlacementReport.Trace(reader);
+        }
+        assertEquals(19_950, trace.size());
+
+        PlacementReport.Result bestFit = PlacementReport.replay(PlacementStrategy.bestFit(ReservationEngine.VENUE_SEATS), ReservationEngine.VENUE_SEATS, trace);
+        assertEquals(0, bestFit.failedReservations);
+        assertTrue(bestFit.getFragmentation() >= 0 && bestFit.getFragmentation() < 1);
+        PlacementReport.Result worstFit = PlacementReport.replay(PlacementStrategy.worstFit(ReservationEngine.VENUE_SEATS), ReservationEngine.VENUE_SEATS, trace);
+        assertTrue(worstFit.meanLargestFreeBlock < bestFit.meanLargestFreeBlock,
+                "Worst fit breaks up the large blocks that best fit keeps.");
+    }
+}
@@ -2,6 +2,15 @@ package edu.hsutx;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -310,4 +319,163 @@ public class RedBlackTreeTest {
 
         assertTrue(tree.validateRedBlackTree(), "Tree should be valid after deletions.");
     }
+
+    @Test
+    public void testValidateRejectsBrokenTrees() {
+        for (String key : new String[] {"m", "c", "t", "a", "e", "s", "z"}) {
+            tree.insert(key, 0);
+        }
+        assertTrue(tree.validateRedBlackTree());
+        tree.find("a").isRed = true;
+        tree.find("c").isRed = true;
+        assertFalse(tree.validateRedBlackTree(), "A red node with a red child is invalid.");
+        tree.find("c").isRed = false;
+        tree.find("z").isRed = false;
+        assertFalse(tree.validateRedBlackTree(), "Paths with different black counts are invalid.");
+    }
+
+    @Test
+    public void testValidateDegenerateChainWithoutRecursion() {
+        // A 200,000-node chain leaning right, which no valid tree has but a bug could make
+        tree.insert("k000000", 0);
+        RedBlackTree<Integer>.Node tail = tree.root;
+        for (int i = 1; i < 200_000; i++) {
+            RedBlackTree<Integer>.Node node = tree.new Node(String.format("k%06d", i), i, tail, false);
+            tail.right = node;
+            tail = node;
+        }
+        assertFalse(tree.validateRedBlackTree(), "The chain breaks the black-count rule.");
+
+        int count = 0;
+        for (Integer ignored : tree) {
+            count++;
+        }
+        assertEquals(200_000, count, "Iteration follows parent pointers and needs no stack.");
+    }
+
+    /* ------------------ Ordered Access Tests ------------------ */
+
+    @Test
+    public void testFloorCeilingAndEmptyTree() {
+        assertNull(tree.getFloorValue("m"));
+        assertFalse(tree.cursor().next());
+        assertFalse(tree.iterator().hasNext());
+        assertTrue(tree.subMap(null, null).isEmpty());
+
+        tree.insert("c", 3);
+        tree.insert("g", 7);
+        tree.insert("p", 16);
+        assertEquals(3, tree.getFloorValue("c"));
+        assertEquals(7, tree.getFloorValue("h"));
+        assertNull(tree.getFloorValue("a"));
+        assertEquals(16, tree.getCeilingValue("h"));
+        assertNull(tree.getCeilingValue("q"));
+    }
+
+    @Test
+    public void testCursorAndSubMapMatchTreeMap() {
+        Random random = new Random(9);
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 3_000; i++) {
+            String key = Integer.toString(random.nextInt(5_000), 36);
+            if (random.nextInt(4) > 0) {
+                tree.insert(key, i);
+                expected.putIfAbsent(key, i);
+            } else {
+                tree.delete(key);
+                expected.remove(key);
+            }
+        }
+
+        List<Integer> all = new ArrayList<>();
+        tree.forEach(all::add);
+        assertEquals(new ArrayList<>(expected.values()), all);
+
+        RedBlackTree<Integer>.Cursor cursor = tree.cursor();     // reused for every range
+        for (int i = 0; i < 200; i++) {
+            String from = Integer.toString(random.nextInt(5_000), 36);
+            String to = Integer.toString(random.nextInt(5_000), 36);
+            if (from.compareTo(to) > 0) {
+                String swap = from;
+                from = to;
+                to = swap;
+            }
+            List<String> keys = new ArrayList<>();
+            cursor.reset(from, to);
+            while (cursor.next()) {
+                keys.add(cursor.getKey());
+                assertEquals(expected.get(cursor.getKey()), cursor.getValue());
+            }
+            assertEquals(new ArrayList<>(expected.subMap(from, to).keySet()), keys, from + " to " + to);
+
+            RedBlackTree<Integer>.SubMap view = tree.subMap(from, to);
+            assertEquals(keys.size(), view.count());
+            assertEquals(keys.isEmpty(), view.isEmpty());
+            assertEquals(keys.isEmpty() ? null : expected.get(keys.get(0)), view.getFirstValue());
+            assertEquals(keys.isEmpty() ? null : expected.get(keys.get(keys.size() - 1)), view.getLastValue());
+        }
+        assertEquals(expected.headMap("m").size(), tree.subMap(null, "m").count());
+        assertEquals(expected.tailMap("m").size(), tree.subMap("m", null).count());
+    }
+
+    @Test
+    public void testSubMapIsLiveAndCursorsEnd() {
+        tree.insert("b", 2);
+        tree.insert("d", 4);
+        RedBlackTree<Integer>.SubMap view = tree.subMap("a", "e");
+        assertEquals(2, view.count());
+        tree.insert("c", 3);
+        tree.insert("e", 5);
+        assertEquals(3, view.count(), "The view sees new keys in its range and not the one at its bound.");
+
+        Iterator<Integer> iterator = view.iterator();
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertEquals(4, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+
+        RedBlackTree<Integer>.Cursor cursor = tree.cursor("z", null);
+        assertFalse(cursor.next());
+        assertThrows(NoSuchElementException.class, cursor::getValue);
+    }
+
+    @Test
+    public void testSpliteratorCoversEveryValueOnce() {
+        assertNull(tree.spliterator().trySplit());
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String key = String.format("%05d", i * 37 % 5_003);
+            tree.insert(key, i);
+            expected.put(key, i);
+        }
+        Spliterator<Integer> whole = tree.spliterator();
+        assertEquals(5_000, whole.getExactSizeIfKnown());
+
+        // Split into parts down to subtrees of a few nodes, and walk them in order
+        List<Spliterator<Integer>> parts = new ArrayList<>();
+        parts.add(whole);
+        for (int round = 0; round < 8; round++) {
+            List<Spliterator<Integer>> next = new ArrayList<>();
+            for (Spliterator<Integer> part : parts) {
+                Spliterator<Integer> prefix = part.trySplit();
+                if (prefix != null) {
+                    next.add(prefix);
+                }
+                next.add(part);
+            }
+            parts = next;
+        }
+        assertTrue(parts.size() > 100, "Only " + parts.size() + " parts.");
+        List<Integer> values = new ArrayList<>();
+        for (Spliterator<Integer> part : parts) {
+            long estimate = part.estimateSize();
+            int before = values.size();
+            part.forEachRemaining(values::add);
+            assertTrue(Math.abs(estimate - (values.size() - before)) <= estimate, "The estimate is roughly right.");
+        }
+        assertEquals(new ArrayList<>(expected.values()), values);
+
+        assertEquals(tree.stream().collect(Collectors.toList()), tree.parallelStream().collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,75 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the ReservationEngine class.
+ */
+public class ReservationEngineTest {
+
+    private ReservationEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        engine = new ReservationEngine(new CowboySeatTree());
+        engine.initialize();
+    }
+
+    @Test
+    public void testReserveUsesPreference() {
+        SeatAssignment first = engine.reserve("Ann", 10, 0);
+        assertEquals(1, first.getSeatStartIndex(), "Preference 0 should place seats at the start of the block.");
+
+        SeatAssignment last = engine.reserve("Bob", 10, 100);
+        assertEquals(ReservationEngine.VENUE_SEATS - 9, last.getSeatStartIndex(), "Preference 100 should place seats at the end.");
+
+        CowboySeatTree tree = engine.getSeatTree();
+        assertEquals(3, tree.getSize(), "Two reservations and the free block between them.");
+        assertTrue(tree.validateRedBlackTree());
+    }
+
+    @Test
+    public void testCancelReturnsSeats() {
+        engine.reserve("Ann", 10, 50);
+        SeatAssignment cancelled = engine.cancel("Ann");
+
+        assertEquals("Ann", cancelled.getOwner());
+        assertNull(engine.cancel("Ann"), "A second cancel should find nothing.");
+        assertEquals(1, engine.getSeatTree().getSize(), "The venue should be one free block again.");
+        assertEquals(ReservationEngine.VENUE_SEATS, engine.getSeatTree().getUnassignedBlockOverThreshold(1).getSeatQuantity());
+    }
+
+    @Test
+    public void testCancelAllReleasesEveryBooking() {
+        engine.reserve("Ann", 10, 0);
+        engine.reserve("Ann", 20, 100);
+        engine.reserve("Bob", 5, 50);
+
+        assertEquals(2, engine.getReservations("Ann").size());
+        assertEquals(2, engine.cancelAll("Ann").size());
+        assertTrue(engine.getReservations("Ann").isEmpty());
+        assertNull(engine.cancel("Ann"));
+        assertEquals(1, engine.getSeatTree().getReservationCount());
+    }
+
+    @Test
+    public void testReserveTooLarge() {
+        assertNull(engine.reserve("Ann", ReservationEngine.VENUE_SEATS + 1, 0));
+        assertNull(engine.cancel("Ann"));
+    }
+
+    @Test
+    public void testReplayBundledTrace() throws IOException {
+        ReservationEngine.ReplayResult result = engine.replay("data/reservations.csv");
+
+        assertEquals(19_950, result.getOperationCount());
+        assertEquals(0, result.getFailedReservations());
+        assertTrue(result.getReserveLatency().getPercentile(50) <= result.getReserveLatency().getPercentile(99));
+        assertTrue(engine.getSeatTree().validateRedBlackTree());
+    }
+}
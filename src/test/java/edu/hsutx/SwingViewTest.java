@@ -0,0 +1,61 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Rectangle;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the SwingView stadium rendering helpers. They work on plain pixel arrays, so they run
+ * without a display.
+ */
+public class SwingViewTest {
+    private static final int SIZE = SwingView.STADIUM_SIZE;
+
+    // The pixel for one seat, as the view has always laid them out
+    private static int pixelOf(int seat) {
+        int row = seat / SIZE;
+        int col = (row % 2 == 0) ? (seat % SIZE) : (SIZE - 1 - (seat % SIZE));
+        return row * SIZE + col;
+    }
+
+    @Test
+    public void testFillSeatsMatchesSeatBySeat() {
+        Random random = new Random(42);
+        int[] expected = new int[SIZE * SIZE];
+        int[] actual = new int[SIZE * SIZE];
+        for (int round = 0; round < 500; round++) {
+            int start = random.nextInt(SIZE * SIZE);
+            int length = random.nextInt(round % 10 == 0 ? 200_000 : 3_000);
+            int rgb = random.nextInt();
+            int[] before = actual.clone();
+
+            for (int seat = start; seat < Math.min(start + length, SIZE * SIZE); seat++) {
+                expected[pixelOf(seat)] = rgb;
+            }
+            Rectangle dirty = SwingView.fillSeats(actual, start, length, rgb);
+            assertArrayEquals(expected, actual, "start " + start + ", length " + length);
+
+            // Every pixel that changed lies inside the dirty rectangle
+            for (int i = 0; i < actual.length; i++) {
+                if (actual[i] != before[i]) {
+                    assertTrue(dirty.contains(i % SIZE, i / SIZE), "pixel " + i + " is outside " + dirty);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDirtyRectangleCoversOnlyTouchedRows() {
+        int[] pixels = new int[SIZE * SIZE];
+        assertEquals(new Rectangle(10, 0, 5, 1), SwingView.fillSeats(pixels, 10, 5, 1));
+        // Seats 1010-1014 are on an odd row, which runs right to left
+        assertEquals(new Rectangle(985, 1, 5, 1), SwingView.fillSeats(pixels, 1010, 5, 1));
+        assertEquals(new Rectangle(990, 2, 10, 2), SwingView.fillSeats(pixels, 2990, 20, 1));   // the snake turns at the row ends
+        assertEquals(new Rectangle(0, 4, SIZE, 3), SwingView.fillSeats(pixels, 4500, 2000, 1));
+        assertNull(SwingView.fillSeats(pixels, 5, 0, 1));
+        assertNull(SwingView.fillSeats(pixels, SIZE * SIZE, 10, 1));
+    }
+}
@@ -0,0 +1,98 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the TreeRenderer class. They draw into an off-screen image, so they run without a display.
+ */
+public class TreeRendererTest {
+    private static final int BLOCKS = 200_000;
+
+    private static PersistentRedBlackTree.Node<SeatAssignment> root;
+    private static long freeSeats;
+
+    @BeforeAll
+    public static void buildTree() {
+        PersistentRedBlackTree<SeatAssignment> tree = new PersistentRedBlackTree<>();
+        for (int i = 0; i < BLOCKS; i++) {
+            // Alternate free and sold blocks of 1 to 5 seats
+            SeatAssignment block = i % 2 == 0 ? new SeatAssignment(1 + i % 5, i * 5 + 1)
+                    : new SeatAssignment("owner" + i, 1 + i % 5, i * 5 + 1);
+            tree.insert(block.getLongKey(), block);
+            if (block.getOwner() == null) {
+                freeSeats += block.getSeatQuantity();
+            }
+        }
+        root = tree.snapshot().getRoot();
+    }
+
+    // Paints the part of the panel a viewport at (x, y) of the given size would show
+    private static TreeRenderer paintViewport(TreeRenderer renderer, int x, int y, int width, int height, double zoom) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.translate(-x, -y);
+        g.clipRect(x, y, width, height);
+        g.scale(zoom, zoom);
+        renderer.paint(g, root, 1000, zoom);
+        g.dispose();
+        return renderer;
+    }
+
+    @Test
+    public void testOnlyVisibleNodesAreDrawn() {
+        TreeRenderer renderer = paintViewport(new TreeRenderer(), 0, 0, 1000, 600, 1.0);
+        assertTrue(renderer.getDrawnNodes() + renderer.getDrawnSummaries() < 100,
+                "Zoomed out, the top levels and a row of summaries should stand in for the tree.");
+        assertTrue(renderer.getDrawnSummaries() > 0);
+
+        // Zoomed far in, deep levels are drawn in full, but only those in the viewport
+        double zoom = 200;
+        int panelHeight = (int) (TreeRenderer.getPanelHeight(root, 1000, zoom) * zoom);
+        renderer = paintViewport(renderer, (int) (500 * zoom) - 600, panelHeight - 1200, 1200, 800, zoom);
+        assertTrue(renderer.getDrawnNodes() > 0, "The viewport should show some nodes.");
+        assertTrue(renderer.getDrawnNodes() + renderer.getDrawnSummaries() < 200);
+    }
+
+    @Test
+    public void testPanelHeightStopsAtSummaries() {
+        int fullHeight = (PersistentRedBlackTree.heightOf(root) + 1) * TreeRenderer.LEVEL_HEIGHT;
+        assertTrue(TreeRenderer.getPanelHeight(root, 1000, 1.0) < fullHeight);
+        assertEquals(fullHeight, TreeRenderer.getPanelHeight(root, 1000, 1e9), "Fully zoomed in, every level shows.");
+        assertEquals(TreeRenderer.LEVEL_HEIGHT, TreeRenderer.getPanelHeight(null, 1000, 1.0));
+    }
+
+    @Test
+    public void testFreeSeatsAreCachedAcrossSnapshots() {
+        TreeRenderer renderer = new TreeRenderer();
+        assertEquals(freeSeats, renderer.getFreeSeats(root));
+
+        // A new version shares all but one path with the old one, and the cache still adds up correctly
+        PersistentRedBlackTree<SeatAssignment> tree = new PersistentRedBlackTree<>();
+        tree.insert(0, new SeatAssignment(1, 1));
+        SeatAssignment extra = new SeatAssignment(7, 2_000_000);
+        tree.insert(extra.getLongKey(), extra);
+        assertEquals(8, renderer.getFreeSeats(tree.snapshot().getRoot()));
+        tree.delete(0);
+        assertEquals(7, renderer.getFreeSeats(tree.snapshot().getRoot()));
+    }
+
+    @Test
+    public void testRepaintDrawsTheSameBoundedWork() {
+        TreeRenderer renderer = paintViewport(new TreeRenderer(), 0, 0, 1000, 600, 1.0);
+        int nodes = renderer.getDrawnNodes();
+        int summaries = renderer.getDrawnSummaries();
+
+        // The second paint finds the summaries' free seats in the cache, and draws exactly as much again
+        paintViewport(renderer, 0, 0, 1000, 600, 1.0);
+        assertEquals(nodes, renderer.getDrawnNodes());
+        assertEquals(summaries, renderer.getDrawnSummaries());
+        assertTrue(nodes + summaries < 100, "Repainting " + BLOCKS + " blocks should draw only the top of the tree.");
+        assertEquals(freeSeats, renderer.getFreeSeats(root));
+    }
+}
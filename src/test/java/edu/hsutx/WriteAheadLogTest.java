@@ -0,0 +1,261 @@
+package edu.hsutx;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for the WriteAheadLog class and ReservationEngine recovery.
+ */
+public class WriteAheadLogTest {
+    private static final String TRACE = "data/reservations.csv";
+
+    @TempDir
+    Path tempDir;
+
+    // Every block in key order, with its owner
+    private static List<String> blocks(CowboySeatTree tree) {
+        List<String> blocks = new ArrayList<>();
+        for (int i = 0; i < tree.getSize(); i++) {
+            SeatAssignment block = tree.select(i);
+            blocks.add(block.getKey() + ":" + block.getOwner());
+        }
+        return blocks;
+    }
+
+    /**
+     * Replays trace commands into an in-memory engine until the given number of them have changed the tree.
+     * Failed commands change nothing and are not logged, so they don't count.
+     */
+    private static ReservationEngine replayChanges(long changes) throws IOException {
+        ReservationEngine engine = new ReservationEngine(new CowboySeatTree());
+        engine.initialize();
+        long applied = 0;
+        try (CsvTraceReader reader = new CsvTraceReader(TRACE)) {
+            ReservationCommand command = new ReservationCommand();
+            while (applied < changes && reader.next(command)) {
+                String name = reader.getNames().getName(command.getNameId());
+                Object result = command.getOp() == ReservationCommand.RESERVE
+                        ? engine.reserve(name, command.getSeats(), command.getPreference())
+                        : engine.cancel(name);
+                if (result != null) {
+                    applied++;
+                }
+            }
+        }
+        assertEquals(changes, applied, "The trace has fewer changes than the log.");
+        return engine;
+    }
+
+    private static void assertSameState(ReservationEngine expected, ReservationEngine actual) {
+        assertEquals(blocks(expected.getSeatTree()), blocks(actual.getSeatTree()));
+        assertEquals(expected.getSeatTree().getFreeBlockCount(), actual.getSeatTree().getFreeBlockCount());
+        assertEquals(expected.getSeatTree().getReservationCount(), actual.getSeatTree().getReservationCount());
+        assertEquals(expected.getSeatTree().getFreeSeatCount(), actual.getSeatTree().getFreeSeatCount());
+        assertTrue(actual.getSeatTree().validateRedBlackTree());
+    }
+
+    @Test
+    public void testRecoveryRestoresTreeAndOwners() throws IOException {
+        Path logPath = tempDir.resolve("venue.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            assertEquals(1, engine.getSeatTree().getSize(), "A new log starts with an empty venue.");
+            engine.reserve("Ann", 10, 0);
+            engine.reserve("Bob", 20, 50);
+            engine.reserve("Ann", 5, 100);      // Ann keeps her first block, but this one is current
+            engine.reserve("Cy", 2_000_000, 0); // fails and logs nothing
+            engine.reserveBatch(List.of(new CowboySeatTree.Request("Di", 3, 0), new CowboySeatTree.Request("Ed", 4, 100)));
+            engine.cancel("Bob");
+        }
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            ReservationEngine expected = new ReservationEngine(new CowboySeatTree());
+            expected.initialize();
+            expected.reserve("Ann", 10, 0);
+            expected.reserve("Bob", 20, 50);
+            expected.reserve("Ann", 5, 100);
+            expected.reserveBatch(List.of(new CowboySeatTree.Request("Di", 3, 0), new CowboySeatTree.Request("Ed", 4, 100)));
+            expected.cancel("Bob");
+            assertSameState(expected, recovered);
+
+            // Owners map to the same reservations, so cancelling after recovery behaves the same
+            assertNull(recovered.cancel("Bob"));
+            assertEquals(5, recovered.cancel("Ann").getSeatQuantity());
+            assertNull(recovered.cancel("Ann"));
+            assertEquals(4, recovered.cancel("Ed").getSeatQuantity());
+        }
+
+        // The cancellations made after recovery were logged too
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(2, recovered.getSeatTree().getReservationCount());   // Ann's first block and Di
+            assertNotNull(recovered.cancel("Di"));
+            assertEquals(10, recovered.getReservations("Ann").get(0).getSeatQuantity());
+            assertEquals(1, recovered.cancelAll("Ann").size(), "Ann's earlier block is still hers.");
+        }
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(0, recovered.getSeatTree().getReservationCount());
+            assertEquals(ReservationEngine.VENUE_SEATS, recovered.getSeatTree().getFreeSeatCount());
+        }
+    }
+
+    @Test
+    public void testRecoveryKeepsCurrentReservationFromBatch() throws IOException {
+        Path logPath = tempDir.resolve("batch.wal");
+        List<CowboySeatTree.Request> batch = List.of(new CowboySeatTree.Request("Ann", 10, 0),
+                new CowboySeatTree.Request("Ann", 5, 100));    // seated first, as the smaller party
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            engine.reserveBatch(batch);
+            assertEquals(5, engine.getSeatTree().getReservation("Ann").getSeatQuantity(),
+                    "The later request in the batch is the current one.");
+        }
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            ReservationEngine expected = new ReservationEngine(new CowboySeatTree());
+            expected.initialize();
+            expected.reserveBatch(batch);
+            assertSameState(expected, recovered);
+            assertEquals(5, recovered.cancel("Ann").getSeatQuantity());
+            assertEquals(10, recovered.cancelAll("Ann").get(0).getSeatQuantity());
+        }
+    }
+
+    @Test
+    public void testFailedWriteIsNotLogged() throws IOException {
+        Path logPath = tempDir.resolve("venue.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            engine.reserve("Ann", 10, 0);
+            assertThrows(IllegalStateException.class, () -> engine.getService().write(tree -> {
+                tree.cancel("Ann");
+                tree.reserve("Bob", 20, 0);     // Bob's name is new to the log
+                throw new IllegalStateException("box office crashed");
+            }));
+            engine.reserve("Bob", 5, 0);
+        }
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            ReservationEngine expected = new ReservationEngine(new CowboySeatTree());
+            expected.initialize();
+            expected.reserve("Ann", 10, 0);
+            expected.reserve("Bob", 5, 0);
+            assertSameState(expected, recovered);
+            assertEquals(10, recovered.cancel("Ann").getSeatQuantity());
+        }
+    }
+
+    @Test
+    public void testTornFrameIsDiscarded() throws IOException {
+        Path logPath = tempDir.resolve("torn.wal");
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            engine.reserve("Ann", 10, 0);
+            engine.reserve("Bob", 20, 0);
+        }
+        long intactSize = Files.size(logPath);
+
+        // A crash in the middle of writing a frame: a header promising more bytes than were written
+        byte[] torn = {40, 0, 0, 0, 1, 2, 3, 4, 'i', 1, 2};
+        Files.write(logPath, torn, StandardOpenOption.APPEND);
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(2, recovered.getSeatTree().getReservationCount());
+            assertEquals(intactSize, Files.size(logPath), "The torn frame should be truncated.");
+            recovered.reserve("Cy", 30, 0);
+        }
+
+        // A frame whose bytes were damaged fails its checksum
+        byte[] bytes = Files.readAllBytes(logPath);
+        bytes[bytes.length - 3] ^= 0x55;
+        Files.write(logPath, bytes);
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            assertEquals(2, recovered.getSeatTree().getReservationCount(), "Cy's frame should be dropped.");
+            assertNotNull(recovered.cancel("Bob"));
+        }
+
+        Path foreign = Files.writeString(tempDir.resolve("foreign.wal"), "not a log at all");
+        IOException e = assertThrows(IOException.class, () -> new WriteAheadLog(foreign).close());
+        assertTrue(e.getMessage().contains("Not a write-ahead log"), e.getMessage());
+    }
+
+    @Test
+    public void testConcurrentCommitsShareFsyncs() throws Exception {
+        int threads = 4;
+        int reservationsPerThread = 250;
+        Path logPath = tempDir.resolve("group.wal");
+        long syncs;
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < reservationsPerThread; i++) {
+                        engine.reserve("T" + thread + "-" + i, 1 + i % 7, i % 101);
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            syncs = engine.getWriteAheadLog().getSyncCount();
+            assertEquals(threads * reservationsPerThread, engine.getSeatTree().getReservationCount());
+        }
+        assertTrue(syncs < threads * reservationsPerThread, "Concurrent commits should share fsyncs.");
+
+        try (WriteAheadLog log = new WriteAheadLog(logPath)) {
+            assertEquals(1 + threads * reservationsPerThread, log.getRecoveredChangeCount());
+        }
+    }
+
+    @Test
+    public void testRecoveryAfterKillMatchesTracePrefix() throws Exception {
+        Path logPath = tempDir.resolve("killed.wal");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "edu.hsutx.ReservationEngine", TRACE, logPath.toString())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        // Kill it partway through the trace, once a few thousand changes are on disk
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (child.isAlive() && (!Files.exists(logPath) || Files.size(logPath) < 200_000)) {
+            assertTrue(System.nanoTime() < deadline, "The replay never got going.");
+            Thread.sleep(1);
+        }
+        assertTrue(child.isAlive(), "The replay finished before it could be killed.");
+        child.destroyForcibly().waitFor();
+
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            long changes = recovered.getWriteAheadLog().getRecoveredChangeCount();
+            assertTrue(changes > 1 && changes < 19_950, "The kill should land mid-stream: " + changes);
+
+            // The first change is the starting block of empty seats; the rest are trace commands
+            assertSameState(replayChanges(changes - 1), recovered);
+        }
+    }
+
+    @Test
+    public void testRecoveryOfWholeTraceMatchesReplay() throws IOException {
+        Path logPath = tempDir.resolve("full.wal");
+        ReservationEngine.ReplayResult result;
+        try (ReservationEngine engine = ReservationEngine.recover(logPath)) {
+            result = engine.replay(TRACE);
+        }
+
+        ReservationEngine replayed = new ReservationEngine(new CowboySeatTree());
+        replayed.initialize();
+        replayed.replay(TRACE);
+        try (ReservationEngine recovered = ReservationEngine.recover(logPath)) {
+            // The starting block, then one change for each command that did something
+            long changes = 1 + result.getOperationCount() - result.getFailedReservations() - result.getFailedCancellations();
+            assertEquals(changes, recovered.getWriteAheadLog().getRecoveredChangeCount());
+            assertSameState(replayed, recovered);
+        }
+    }
+}